@@ -1,6 +1,7 @@
 plugins {
     java
     alias(libs.plugins.spring.boot)
+    alias(libs.plugins.spring.boot.aot)
     alias(libs.plugins.spring.dependency.management)
     id("jacoco")
 }
@@ -11,6 +12,13 @@ configurations {
     }
 }
 
+// benchmark source set (src/jmh/java)
+val jmh: SourceSet by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output
+    runtimeClasspath += sourceSets.main.get().output
+}
+configurations[jmh.implementationConfigurationName].extendsFrom(configurations.implementation.get())
+
 allprojects {
     group = property("app.group").toString()
 }
@@ -23,10 +31,15 @@ dependencyManagement {
 
 dependencies {
     implementation(libs.spring.boot.starter.web)
+    implementation(libs.spring.boot.starter.actuator)
+    runtimeOnly(libs.micrometer.registry.prometheus)
     compileOnly(libs.lombok)
     annotationProcessor(libs.lombok)
     annotationProcessor(libs.spring.boot.configuration.processor)
     testImplementation(libs.spring.boot.starter.test)
+
+    "jmhImplementation"(libs.jmh.core)
+    "jmhAnnotationProcessor"(libs.jmh.generator.annprocess)
 }
 
 // about source and compilation
@@ -50,3 +63,85 @@ tasks.test {
     ignoreFailures = true
     useJUnitPlatform()
 }
+
+// benchmark tasks
+// ./gradlew jmh                                   : 전체 벤치마크 (스레드 1, 64 / 각 벤치마크의 기본 @Param 조합)
+// ./gradlew jmh -Pjmh.includes=PointHistory       : 이름에 PointHistory 가 들어간 벤치마크만
+// ./gradlew jmh -Pjmh.threads=1,8,64              : 스레드 수 지정
+// ./gradlew jmh -Pjmh.params=throttled=true       : @Param 값 지정 (여러 개는 ; 로 구분, 예: distribution=UNIFORM;engine=LOCK)
+tasks.register<JavaExec>("jmh") {
+    group = "benchmark"
+    description = "Runs JMH benchmarks in src/jmh"
+    classpath = jmh.runtimeClasspath
+    mainClass.set("io.hhplus.tdd.point.PointBenchmarkRunner")
+    args = listOf(
+        project.findProperty("jmh.includes")?.toString() ?: ".*",
+        project.findProperty("jmh.threads")?.toString() ?: "1,64",
+        layout.buildDirectory.dir("reports/jmh").get().asFile.absolutePath,
+        project.findProperty("jmh.params")?.toString() ?: "",
+    )
+}
+
+// fast startup tasks (Spring AOT + AppCDS)
+// ./gradlew startupJar                                     : AOT 처리된 클래스를 포함한 실행 jar (build/startup/app.jar + lib/)
+// ./gradlew appCds                                         : 포인트 API 4개를 호출하는 학습 실행으로 AppCDS 아카이브 생성 (build/startup/app.jsa)
+// ./gradlew startupBenchmark                               : bootJar / thin / aot / aot+cds 의 첫 응답까지 시간 비교 (build/reports/startup/startup.txt)
+// ./gradlew startupBenchmark -Pstartup.runs=10 -Pstartup.maxMillis=1500 : 측정 횟수, aot+cds 중앙값 한도 (넘으면 실패)
+val startupDir = layout.buildDirectory.dir("startup")
+
+// AOT 처리는 실행할 때와 같은 프로필로 (application-fast-startup.yml)
+tasks.named<org.springframework.boot.gradle.tasks.aot.ProcessAot>("processAot") {
+    args("--spring.profiles.active=fast-startup")
+}
+
+val startupLibs = tasks.register<Sync>("startupLibs") {
+    from(configurations.runtimeClasspath)
+    into(startupDir.map { it.dir("lib") })
+}
+
+// AppCDS 는 jar 로 된 클래스패스만 아카이브하므로 bootJar(중첩 jar) 대신 얇은 jar + lib/ 로 실행
+tasks.register<Jar>("startupJar") {
+    group = "startup"
+    description = "Builds a thin, AOT-processed application jar for fast startup"
+    dependsOn(startupLibs)
+    from(sourceSets.main.get().output, sourceSets["aot"].output)
+    archiveFileName.set("app.jar")
+    destinationDirectory.set(startupDir)
+    manifest {
+        attributes(
+            "Main-Class" to "io.hhplus.tdd.TddApplication",
+            "Class-Path" to configurations.runtimeClasspath.get().joinToString(" ") { "lib/${it.name}" },
+        )
+    }
+}
+
+tasks.register<JavaExec>("appCds") {
+    group = "startup"
+    description = "Creates an AppCDS archive from a training run against the point endpoints"
+    dependsOn("startupJar")
+    classpath = jmh.runtimeClasspath
+    mainClass.set("io.hhplus.tdd.StartupBenchmark")
+    args = listOf(
+        "train",
+        startupDir.get().file("app.jar").asFile.absolutePath,
+        startupDir.get().file("app.jsa").asFile.absolutePath,
+        layout.buildDirectory.dir("reports/startup").get().asFile.absolutePath,
+    )
+}
+
+tasks.register<JavaExec>("startupBenchmark") {
+    group = "benchmark"
+    description = "Measures time to first successful request for bootJar, thin jar, AOT and AOT + AppCDS"
+    dependsOn("bootJar", "appCds")
+    classpath = jmh.runtimeClasspath
+    mainClass.set("io.hhplus.tdd.StartupBenchmark")
+    args = listOf(
+        "measure",
+        tasks.bootJar.get().archiveFile.get().asFile.absolutePath,
+        startupDir.get().file("app.jar").asFile.absolutePath,
+        startupDir.get().file("app.jsa").asFile.absolutePath,
+        project.findProperty("startup.runs")?.toString() ?: "5",
+        layout.buildDirectory.dir("reports/startup").get().asFile.absolutePath,
+        project.findProperty("startup.maxMillis")?.toString() ?: "0",
+    )
+}
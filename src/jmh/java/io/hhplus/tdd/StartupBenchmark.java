@@ -0,0 +1,196 @@
+package io.hhplus.tdd;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 빠른 시작 구성(AOT + AppCDS)의 학습 실행과 시작 시간 측정
+ * - train  : AppCDS 아카이브를 만들기 위해 앱을 띄우고 포인트 API 4개를 호출한 뒤 종료 (종료 시 JVM 이 아카이브를 씀)
+ *            호출이 하나라도 2xx 가 아니면 실패 (에러 경로만 학습한 아카이브가 되지 않게)
+ *            args: train {app.jar} {app.jsa} {로그 디렉토리}
+ * - measure: 프로세스 시작부터 GET /point/{id} 가 처음 200 을 받을 때까지 걸린 시간을 구성별로 runs 번 측정, 중앙값 기록
+ *            args: measure {bootJar} {app.jar} {app.jsa} {runs} {결과 디렉토리} {aot+cds 중앙값 한도 ms, 0 이면 검사 안 함}
+ * - 모든 구성을 fast-startup 프로필로 실행해서 구성 간 차이가 실행 방식(jar 구조, AOT, AppCDS)에서만 나오게
+ */
+public class StartupBenchmark {
+
+    private static final String PROFILE = "fast-startup";
+    private static final Duration START_TIMEOUT = Duration.ofSeconds(120);
+    private static final int TRAINING_ROUNDS = 20;
+
+    // bootJar: 중첩 jar 실행 / thin: 얇은 jar + lib/ (AOT 사용 안 함) / aot: 거기에 AOT 처리된 클래스 사용 / aot+cds: 거기에 학습 실행으로 만든 AppCDS 아카이브까지
+    private static final List<String> VARIANTS = List.of("bootJar", "thin", "aot", "aot+cds");
+
+    private static final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(1))
+            .build();
+
+    public static void main(String[] args) throws Exception {
+        switch (args[0]) {
+            case "train" -> train(Path.of(args[1]), Path.of(args[2]), Path.of(args[3]));
+            case "measure" -> measure(Path.of(args[1]), Path.of(args[2]), Path.of(args[3]), Integer.parseInt(args[4]),
+                    Path.of(args[5]), Long.parseLong(args[6]));
+            default -> throw new IllegalArgumentException("train 또는 measure 만 사용할 수 있습니다: " + args[0]);
+        }
+    }
+
+    private static void train(Path appJar, Path archive, Path logDirectory) throws Exception {
+        Files.createDirectories(logDirectory);
+        Files.deleteIfExists(archive);
+        int port = freePort();
+        List<String> command = fastCommand(appJar, port);
+        command.add(1, "-XX:ArchiveClassesAtExit=" + archive.toAbsolutePath());
+
+        Process process = start(command, logDirectory.resolve("train.log"));
+        try {
+            awaitFirstSuccess(process, port);
+            for (int round = 0; round < TRAINING_ROUNDS; round++) {
+                call(port, "PATCH", "/point/1/charge", "1000");
+                call(port, "PATCH", "/point/1/use", "500");
+                call(port, "GET", "/point/1", null);
+                call(port, "GET", "/point/1/histories", null);
+            }
+        } finally {
+            stop(process);
+        }
+        if (!Files.exists(archive))
+            throw new IllegalStateException("AppCDS 아카이브가 만들어지지 않았습니다. 로그: " + logDirectory.resolve("train.log"));
+        System.out.printf("AppCDS 아카이브 생성: %s (%,d bytes)%n", archive, Files.size(archive));
+    }
+
+    private static void measure(Path bootJar, Path appJar, Path archive, int runs, Path resultDirectory, long maxMillis) throws Exception {
+        Files.createDirectories(resultDirectory);
+        Map<String, List<Long>> results = new LinkedHashMap<>();
+        for (int run = 0; run < runs; run++) {
+            // 구성을 번갈아 실행해서 시간대에 따른 차이가 한 구성에 몰리지 않게
+            for (String variant : VARIANTS) {
+                int port = freePort();
+                List<String> command = switch (variant) {
+                    case "bootJar" -> command(bootJar, false, port);
+                    case "thin" -> command(appJar, false, port);
+                    case "aot" -> fastCommand(appJar, port);
+                    default -> {
+                        List<String> fast = fastCommand(appJar, port);
+                        fast.add(1, "-XX:SharedArchiveFile=" + archive.toAbsolutePath());
+                        yield fast;
+                    }
+                };
+                results.computeIfAbsent(variant, key -> new ArrayList<>())
+                        .add(timeToFirstSuccess(command, resultDirectory.resolve(variant.replace('+', '-') + "-" + run + ".log")));
+            }
+        }
+
+        File report = resultDirectory.resolve("startup.txt").toFile();
+        try (PrintWriter out = new PrintWriter(report)) {
+            out.println("variant\tmedian_ms\tmin_ms\tmax_ms\truns_ms");
+            for (Map.Entry<String, List<Long>> entry : results.entrySet()) {
+                List<Long> millis = entry.getValue().stream().sorted().toList();
+                out.printf("%s\t%d\t%d\t%d\t%s%n", entry.getKey(), median(millis), millis.get(0), millis.get(millis.size() - 1), entry.getValue());
+            }
+        }
+        System.out.println(Files.readString(report.toPath()));
+
+        long fastMedian = median(results.get("aot+cds").stream().sorted().toList());
+        if (maxMillis > 0 && fastMedian > maxMillis)
+            throw new IllegalStateException("aot+cds 첫 응답까지 " + fastMedian + "ms 로 한도(" + maxMillis + "ms)를 넘었습니다.");
+    }
+
+    private static long timeToFirstSuccess(List<String> command, Path log) throws Exception {
+        long start = System.nanoTime();
+        Process process = start(command, log);
+        try {
+            awaitFirstSuccess(process, portOf(command));
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        } finally {
+            stop(process);
+        }
+    }
+
+    private static List<String> fastCommand(Path appJar, int port) {
+        return command(appJar, true, port);
+    }
+
+    // AOT 로 처리된 클래스는 fast-startup 프로필로 만들어졌으므로 실행할 때도 같은 프로필 (비교를 위해 AOT 를 쓰지 않는 구성도 같은 프로필)
+    private static List<String> command(Path jar, boolean aot, int port) {
+        return new ArrayList<>(List.of(java(), "-Dspring.aot.enabled=" + aot, "-Dspring.profiles.active=" + PROFILE,
+                "-jar", jar.toAbsolutePath().toString(), "--server.port=" + port));
+    }
+
+    private static Process start(List<String> command, Path log) throws IOException {
+        return new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+    }
+
+    private static void awaitFirstSuccess(Process process, int port) throws InterruptedException {
+        long deadline = System.nanoTime() + START_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive())
+                throw new IllegalStateException("앱이 시작 중에 종료되었습니다. (exit " + process.exitValue() + ")");
+            try {
+                if (send(port, "GET", "/point/1", null) == 200)
+                    return;
+            } catch (IOException ignored) {
+                // 아직 포트가 열리지 않음
+            }
+            Thread.sleep(5);
+        }
+        throw new IllegalStateException(START_TIMEOUT.toSeconds() + "초 안에 앱이 응답하지 않았습니다.");
+    }
+
+    private static void call(int port, String method, String path, String body) throws IOException, InterruptedException {
+        int status = send(port, method, path, body);
+        if (status / 100 != 2)
+            throw new IllegalStateException("학습 실행 중 " + method + " " + path + " 요청이 " + status + " 로 실패했습니다.");
+    }
+
+    private static int send(int port, String method, String path, String body) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .timeout(Duration.ofSeconds(5))
+                .header("Content-Type", "application/json")
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    // SIGTERM 으로 정상 종료 (학습 실행은 정상 종료해야 아카이브가 써짐)
+    private static void stop(Process process) throws InterruptedException {
+        process.destroy();
+        if (!process.waitFor(60, TimeUnit.SECONDS))
+            process.destroyForcibly().waitFor();
+    }
+
+    private static int portOf(List<String> command) {
+        String option = command.get(command.size() - 1);
+        return Integer.parseInt(option.substring(option.indexOf('=') + 1));
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static long median(List<Long> sorted) {
+        return sorted.get(sorted.size() / 2);
+    }
+
+    private static String java() {
+        return Path.of(System.getProperty("java.home"), "bin", "java").toString();
+    }
+}
@@ -0,0 +1,94 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.database.PointHistoryTable;
+import io.hhplus.tdd.database.UserPointTable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 벤치마크용 Table
+ * - throttled=true : 실제 Table (조회/저장마다 최대 200~300ms 지연)
+ *   실제 Table 은 동시 호출에 안전하지 않아서(HashMap, ArrayList) Table 마다 한 번에 한 호출만 들어가도록 감쌈
+ * - throttled=false: 같은 공개 API 를 지연 없이 구현한 Table (PointService 자체 오버헤드만 측정)
+ */
+final class BenchmarkTables {
+
+    private BenchmarkTables() {
+    }
+
+    static UserPointTable userPointTable(boolean throttled) {
+        return throttled ? new FencedUserPointTable() : new NoThrottleUserPointTable();
+    }
+
+    static PointHistoryTable pointHistoryTable(boolean throttled) {
+        return throttled ? new FencedPointHistoryTable() : new NoThrottlePointHistoryTable();
+    }
+
+    static class FencedUserPointTable extends UserPointTable {
+
+        @Override
+        public synchronized UserPoint selectById(Long id) {
+            return super.selectById(id);
+        }
+
+        @Override
+        public synchronized UserPoint insertOrUpdate(long id, long amount) {
+            return super.insertOrUpdate(id, amount);
+        }
+    }
+
+    static class FencedPointHistoryTable extends PointHistoryTable {
+
+        @Override
+        public synchronized PointHistory insert(long userId, long amount, TransactionType type, long updateMillis) {
+            return super.insert(userId, amount, type, updateMillis);
+        }
+
+        @Override
+        public synchronized List<PointHistory> selectAllByUserId(long userId) {
+            return super.selectAllByUserId(userId);
+        }
+    }
+
+    static class NoThrottleUserPointTable extends UserPointTable {
+
+        private final ConcurrentHashMap<Long, UserPoint> table = new ConcurrentHashMap<>();
+
+        @Override
+        public UserPoint selectById(Long id) {
+            return table.getOrDefault(id, UserPoint.empty(id));
+        }
+
+        @Override
+        public UserPoint insertOrUpdate(long id, long amount) {
+            UserPoint userPoint = new UserPoint(id, amount, System.currentTimeMillis());
+            table.put(id, userPoint);
+            return userPoint;
+        }
+    }
+
+    static class NoThrottlePointHistoryTable extends PointHistoryTable {
+
+        private final List<PointHistory> table = new ArrayList<>();
+        private final AtomicLong cursor = new AtomicLong(1);
+
+        @Override
+        public PointHistory insert(long userId, long amount, TransactionType type, long updateMillis) {
+            PointHistory pointHistory = new PointHistory(cursor.getAndIncrement(), userId, amount, type, updateMillis);
+            synchronized (table) {
+                table.add(pointHistory);
+            }
+            return pointHistory;
+        }
+
+        @Override
+        public List<PointHistory> selectAllByUserId(long userId) {
+            synchronized (table) {
+                return table.stream().filter(pointHistory -> pointHistory.userId() == userId).toList();
+            }
+        }
+    }
+}
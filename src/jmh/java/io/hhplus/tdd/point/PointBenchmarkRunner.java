@@ -0,0 +1,45 @@
+package io.hhplus.tdd.point;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+
+/**
+ * 스레드 수 별로 JMH 를 실행하고 결과를 JSON 으로 남김
+ * - args[0]: 실행할 벤치마크 이름 정규식
+ * - args[1]: 스레드 수 목록 (예: 1,8,64)
+ * - args[2]: 결과 디렉토리 (threads-{n}.json)
+ * - args[3]: @Param 기본값 대신 쓸 값 (예: throttled=true;distribution=HOT,UNIFORM), 없으면 기본값
+ */
+public class PointBenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException {
+        String includes = args.length > 0 ? args[0] : ".*";
+        String threads = args.length > 1 ? args[1] : "1,64";
+        File resultDir = new File(args.length > 2 ? args[2] : "build/reports/jmh");
+        String params = args.length > 3 ? args[3] : "";
+        resultDir.mkdirs();
+
+        for (String thread : threads.split(",")) {
+            int threadCount = Integer.parseInt(thread.trim());
+            ChainedOptionsBuilder options = new OptionsBuilder()
+                    .include(includes)
+                    .threads(threadCount)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result(new File(resultDir, "threads-" + threadCount + ".json").getAbsolutePath());
+            for (String param : params.split(";")) {
+                if (param.isBlank())
+                    continue;
+                String[] nameAndValues = param.split("=", 2);
+                if (nameAndValues.length != 2)
+                    throw new IllegalArgumentException("파라미터는 이름=값1,값2 형식이어야 합니다: " + param);
+                options.param(nameAndValues[0].trim(), nameAndValues[1].trim().split(","));
+            }
+            new Runner(options.build()).run();
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.database.PointHistoryTable;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 내역 조회 비용이 쌓인 내역 수에 따라 어떻게 늘어나는지
+ * - 조회 대상 유저 내역 historySize 건만 쌓음
+ *   (유저별 인덱스/컬럼 저장소에서 읽으므로 다른 유저의 내역은 조회 비용에 영향이 없음)
+ * - 내역 조회는 Table 지연이 없어서 지연 없는 Table 로만 측정
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class PointHistoryBenchmark {
+
+    private static final long USER_ID = 1L;
+
+    @Param({"100", "10000", "100000"})
+    public int historySize;
+
+    @Param({"false", "true"})
+    public boolean columnar;
+
+    private PointService pointService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        PointProperties properties = new PointProperties();
+        // 요청 수 제한에 걸려 거절되면 측정이 중단되므로 끔 (처리 경로 자체만 측정)
+        properties.getAdmission().setEnabled(false);
+        properties.getHistory().setColumnar(columnar);
+        PointHistoryTable pointHistoryTable = BenchmarkTables.pointHistoryTable(false);
+        pointService = new PointService(BenchmarkTables.userPointTable(false), pointHistoryTable, properties, new SimpleMeterRegistry());
+
+        // 컬럼형 저장소, 유저별 인덱스는 서비스를 거쳐야 채워지므로 양쪽 모두 charge 로 쌓음
+        for (int i = 0; i < historySize; i++)
+            pointService.charge(USER_ID, 0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pointService.close();
+    }
+
+    @Benchmark
+    public List<PointHistory> selectHistoryById() {
+        return pointService.selectHistoryById(USER_ID);
+    }
+
+    @Benchmark
+    public PointHistoryPage selectHistoryPage() {
+        return pointService.selectHistoryPage(USER_ID, null, 100, null);
+    }
+}
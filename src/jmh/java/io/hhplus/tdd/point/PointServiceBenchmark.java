@@ -0,0 +1,79 @@
+package io.hhplus.tdd.point;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * charge/use 처리량과 지연시간 분포
+ * - 금액 0 으로 충전/사용해서 잔고 한도에 걸리지 않고 조회-검증-저장-내역 전체 경로를 반복
+ * - 스레드 수는 PointBenchmarkRunner 에서 지정
+ * - engine: userId Lock / 그룹 커밋 / 코어 수만큼의 단일 스레드 샤드 비교
+ * - 지연시간 분포(SampleTime)는 charge 만 측정
+ * - 실제 Table(throttled=true)은 호출마다 수백 ms 라 기본 조합에서 뺌 (-Pjmh.params=throttled=true 로 실행)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class PointServiceBenchmark {
+
+    @Param({"false"})
+    public boolean throttled;
+
+    @Param({"HOT", "ZIPF"})
+    public UserIdDistribution distribution;
+
+    @Param({"10000"})
+    public int userCount;
+
+    @Param({"LOCK", "GROUP_COMMIT", "SHARD"})
+    public Engine engine;
+
+    private PointService pointService;
+    private UserIdDistribution.Sampler sampler;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        PointProperties properties = new PointProperties();
+        // 요청 수 제한에 걸려 거절되면 측정이 중단되므로 끔 (처리 경로 자체만 측정)
+        properties.getAdmission().setEnabled(false);
+        properties.getGroupCommit().setEnabled(engine == Engine.GROUP_COMMIT);
+        properties.getShard().setEnabled(engine == Engine.SHARD);
+        pointService = new PointService(
+                BenchmarkTables.userPointTable(throttled),
+                BenchmarkTables.pointHistoryTable(throttled),
+                properties,
+                new SimpleMeterRegistry()
+        );
+        sampler = distribution.sampler(userCount);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pointService.close();
+    }
+
+    @Benchmark
+    @BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+    public UserPoint charge() {
+        return pointService.charge(sampler.next(), 0);
+    }
+
+    @Benchmark
+    public UserPoint use() {
+        return pointService.use(sampler.next(), 0);
+    }
+
+    @Benchmark
+    public UserPoint selectById() {
+        return pointService.selectById(sampler.next());
+    }
+
+    public enum Engine {
+        LOCK, GROUP_COMMIT, SHARD
+    }
+}
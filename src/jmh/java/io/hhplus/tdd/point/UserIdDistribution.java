@@ -0,0 +1,49 @@
+package io.hhplus.tdd.point;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 벤치마크 요청이 어떤 userId 로 몰리는지
+ * - HOT    : 모든 요청이 한 유저에게 (프로모션 폭주 상황)
+ * - UNIFORM: 모든 유저에게 고르게
+ * - ZIPF   : 소수 유저에게 요청이 몰리는 일반적인 분포 (s = 1)
+ */
+enum UserIdDistribution {
+    HOT, UNIFORM, ZIPF;
+
+    Sampler sampler(int userCount) {
+        return switch (this) {
+            case HOT -> () -> 1L;
+            case UNIFORM -> () -> ThreadLocalRandom.current().nextLong(1, userCount + 1);
+            case ZIPF -> new ZipfSampler(userCount);
+        };
+    }
+
+    interface Sampler {
+        long next();
+    }
+
+    // 누적 분포를 미리 계산해두고 이진 탐색으로 뽑음
+    private static class ZipfSampler implements Sampler {
+
+        private final double[] cumulative;
+
+        ZipfSampler(int userCount) {
+            cumulative = new double[userCount];
+            double sum = 0;
+            for (int rank = 1; rank <= userCount; rank++) {
+                sum += 1.0 / rank;
+                cumulative[rank - 1] = sum;
+            }
+            for (int i = 0; i < userCount; i++)
+                cumulative[i] /= sum;
+        }
+
+        @Override
+        public long next() {
+            int index = Arrays.binarySearch(cumulative, ThreadLocalRandom.current().nextDouble());
+            return (index >= 0 ? index : -index - 1) + 1L;
+        }
+    }
+}
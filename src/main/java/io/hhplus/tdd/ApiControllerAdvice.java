@@ -1,5 +1,8 @@
 package io.hhplus.tdd;
 
+import io.hhplus.tdd.point.LockTimeoutException;
+import io.hhplus.tdd.point.TooManyRequestsException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
@@ -13,6 +16,18 @@ class ApiControllerAdvice extends ResponseEntityExceptionHandler {
         return ResponseEntity.status(400).body(new ErrorResponse("400", e.getMessage()));
     }
 
+    @ExceptionHandler(LockTimeoutException.class)
+    public ResponseEntity<ErrorResponse> handleLockTimeoutException(LockTimeoutException e) {
+        return ResponseEntity.status(503).body(new ErrorResponse("503", e.getMessage()));
+    }
+
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<ErrorResponse> handleTooManyRequestsException(TooManyRequestsException e) {
+        return ResponseEntity.status(429)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(new ErrorResponse("429", e.getMessage()));
+    }
+
     @ExceptionHandler(value = Exception.class)
     public ResponseEntity<ErrorResponse> handleException(Exception e) {
         return ResponseEntity.status(500).body(new ErrorResponse("500", "에러가 발생했습니다."));
@@ -0,0 +1,274 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.PointHistoryPage;
+import io.hhplus.tdd.point.PointHistoryStore;
+import io.hhplus.tdd.point.PointHistoryVisitor;
+import io.hhplus.tdd.point.TransactionType;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * 내역을 PointHistory 객체 대신 userId 별 컬럼(primitive 배열)로 보관하는 메모리 저장소
+ * - 유저별로 64건짜리 청크에 id, amount, updateMillis 는 long[], type 은 byte[] 로 순서대로 쌓음 (userId 는 키라서 저장하지 않음)
+ * - 청크가 차면 새 청크만 추가 (이미 쌓은 내역은 옮기지 않음). 첫 청크만 4칸에서 64칸까지 2배씩 늘림
+ * - 메모리 (64비트 JVM, compressed oops 기준 추정)
+ *   꽉 찬 청크의 내역 1건 = 약 26.5바이트 (컬럼 25바이트 + 청크 객체/배열 헤더 96바이트 / 64건)
+ *   PointHistoryTable 은 내역 1건 = 약 58바이트 (객체 48바이트 + Table, 유저별 인덱스의 참조) -> 내역이 많은 유저는 약 2.2배 줄어듦
+ *   유저별 고정 비용은 약 300바이트 (맵 엔트리, Columns, 4칸짜리 첫 청크)로 Table 쪽 유저별 인덱스(약 130바이트)보다 커서
+ *   내역이 10건 안팎인 유저는 거의 줄지 않고, 몇 건뿐인 유저는 오히려 더 큼
+ * - 한 유저의 내역이 청크 안에서 연속으로 놓여 있어서 유저별 조회는 순차 읽기
+ * - PointHistory 는 조회 결과를 꺼낼 때(직렬화할 때) 1건씩 만듦
+ */
+public class ColumnarPointHistoryStore implements PointHistoryStore {
+
+    private static final TransactionType[] TYPES = TransactionType.values();
+    private static final int CHUNK_SHIFT = 6;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;     // 청크 1개 = 내역 64건
+    private static final int FIRST_CHUNK_CAPACITY = 4;
+
+    private final ConcurrentHashMap<Long, Columns> columnsByUser = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong(1);
+
+    @Override
+    public PointHistory insert(long userId, long amount, TransactionType type, long updateMillis) {
+        Columns columns = columnsByUser.computeIfAbsent(userId, key -> new Columns());
+        synchronized (columns) {
+            // 유저 모니터 안에서 발급해야 유저별로 id 가 오름차순
+            long id = nextId.getAndIncrement();
+            columns.add(id, amount, type, updateMillis);
+            return new PointHistory(id, userId, amount, type, updateMillis);
+        }
+    }
+
+    /**
+     * 복사하지 않는 읽기 전용 목록 (호출 시점까지의 내역만 보이고, 이후 insert 는 반영되지 않음)
+     */
+    @Override
+    public List<PointHistory> selectAllByUserId(long userId) {
+        Columns columns = columnsByUser.get(userId);
+        if (columns == null)
+            return List.of();
+
+        synchronized (columns) {
+            return columns.view(userId);
+        }
+    }
+
+    /**
+     * 컬럼 배열에서 바로 읽음 (PointHistory 를 만들지 않음)
+     */
+    @Override
+    public void forEach(long userId, PointHistoryVisitor visitor) {
+        Columns columns = columnsByUser.get(userId);
+        if (columns == null)
+            return;
+
+        ColumnsView histories;
+        synchronized (columns) {
+            histories = columns.view(userId);
+        }
+        for (int i = 0; i < histories.size(); i++)
+            visitor.visit(histories.id(i), histories.amount(i), histories.type(i), histories.updateMillis(i));
+    }
+
+    @Override
+    public PointHistoryPage selectPage(long userId, long cursor, int limit, TransactionType type) {
+        Columns columns = columnsByUser.get(userId);
+        if (columns == null)
+            return new PointHistoryPage(List.of(), null);
+
+        ColumnsView histories;
+        synchronized (columns) {
+            histories = columns.view(userId);
+        }
+
+        List<PointHistory> page = new ArrayList<>(Math.min(limit, histories.size()));
+        int i = histories.firstIndexAfter(cursor);
+        for (; i < histories.size() && page.size() < limit; i++) {
+            if (type == null || histories.type(i) == type)
+                page.add(histories.get(i));
+        }
+        Long nextCursor = i < histories.size() && !page.isEmpty() ? page.get(page.size() - 1).id() : null;
+        return new PointHistoryPage(page, nextCursor);
+    }
+
+    @Override
+    public List<PointHistory> selectRange(long userId, long from, long to) {
+        Columns columns = columnsByUser.get(userId);
+        if (columns == null)
+            return List.of();
+
+        ColumnsView histories;
+        synchronized (columns) {
+            histories = columns.view(userId);
+        }
+        int start = histories.firstIndexAtOrAfterMillis(from);
+        int end = histories.firstIndexAtOrAfterMillis(to);
+        return histories.subList(start, Math.max(start, end));
+    }
+
+    /**
+     * 유저별로 호출 시점까지 저장된 내역 (메모리 저장소라 재시작 후엔 비어 있음)
+     */
+    @Override
+    public void forEachStored(Consumer<PointHistory> action) {
+        for (Map.Entry<Long, Columns> entry : columnsByUser.entrySet()) {
+            ColumnsView histories;
+            synchronized (entry.getValue()) {
+                histories = entry.getValue().view(entry.getKey());
+            }
+            histories.forEach(action);
+        }
+    }
+
+    @Override
+    public void close() {
+    }
+
+    /**
+     * 한 유저의 내역 청크 목록 (동기화하지 않으므로 Columns 모니터 안에서 사용)
+     * - 이미 쓴 칸과 청크 목록에 들어간 청크는 바뀌지 않음. 첫 청크를 늘리거나 목록이 차면 새 배열로 바꾸므로 이전 view 도 그대로 유효
+     */
+    private static final class Columns {
+
+        private Chunk[] chunks = {new Chunk(FIRST_CHUNK_CAPACITY)};
+        private int size;
+
+        private void add(long id, long amount, TransactionType type, long millis) {
+            int index = size >>> CHUNK_SHIFT;
+            int offset = size & (CHUNK_SIZE - 1);
+            if (index == 0) {
+                if (offset == chunks[0].capacity())
+                    chunks = new Chunk[]{chunks[0].grow(offset * 2)};
+            } else {
+                if (index == chunks.length)
+                    chunks = Arrays.copyOf(chunks, chunks.length * 2);
+                if (chunks[index] == null)
+                    chunks[index] = new Chunk(CHUNK_SIZE);
+            }
+            chunks[index].set(offset, id, amount, type, millis);
+            size++;
+        }
+
+        private ColumnsView view(long userId) {
+            return new ColumnsView(userId, chunks, size);
+        }
+    }
+
+    private static final class Chunk {
+
+        private final long[] ids;
+        private final long[] amounts;
+        private final long[] updateMillis;
+        private final byte[] types;
+
+        private Chunk(int capacity) {
+            this(new long[capacity], new long[capacity], new long[capacity], new byte[capacity]);
+        }
+
+        private Chunk(long[] ids, long[] amounts, long[] updateMillis, byte[] types) {
+            this.ids = ids;
+            this.amounts = amounts;
+            this.updateMillis = updateMillis;
+            this.types = types;
+        }
+
+        private int capacity() {
+            return ids.length;
+        }
+
+        // 첫 청크에서만 사용 (최대 CHUNK_SIZE 건만 옮김)
+        private Chunk grow(int capacity) {
+            return new Chunk(Arrays.copyOf(ids, capacity), Arrays.copyOf(amounts, capacity),
+                    Arrays.copyOf(updateMillis, capacity), Arrays.copyOf(types, capacity));
+        }
+
+        private void set(int offset, long id, long amount, TransactionType type, long millis) {
+            ids[offset] = id;
+            amounts[offset] = amount;
+            updateMillis[offset] = millis;
+            types[offset] = (byte) type.ordinal();
+        }
+    }
+
+    /**
+     * 특정 시점의 청크 목록과 건수만 잡아둔 목록, get 할 때 PointHistory 를 만듦
+     */
+    private static final class ColumnsView extends AbstractList<PointHistory> implements RandomAccess {
+
+        private final long userId;
+        private final Chunk[] chunks;
+        private final int size;
+
+        private ColumnsView(long userId, Chunk[] chunks, int size) {
+            this.userId = userId;
+            this.chunks = chunks;
+            this.size = size;
+        }
+
+        @Override
+        public PointHistory get(int index) {
+            if (index < 0 || index >= size)
+                throw new IndexOutOfBoundsException(index);
+            return new PointHistory(id(index), userId, amount(index), type(index), updateMillis(index));
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        private long id(int index) {
+            return chunks[index >>> CHUNK_SHIFT].ids[index & (CHUNK_SIZE - 1)];
+        }
+
+        private long amount(int index) {
+            return chunks[index >>> CHUNK_SHIFT].amounts[index & (CHUNK_SIZE - 1)];
+        }
+
+        private long updateMillis(int index) {
+            return chunks[index >>> CHUNK_SHIFT].updateMillis[index & (CHUNK_SIZE - 1)];
+        }
+
+        private TransactionType type(int index) {
+            return TYPES[chunks[index >>> CHUNK_SHIFT].types[index & (CHUNK_SIZE - 1)]];
+        }
+
+        // updateMillis 가 millis 이상인 첫 위치 (유저별 내역은 updateMillis 가 줄어들지 않음)
+        private int firstIndexAtOrAfterMillis(long millis) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (updateMillis(mid) < millis)
+                    low = mid + 1;
+                else
+                    high = mid;
+            }
+            return low;
+        }
+
+        // id 가 cursor 보다 큰 첫 위치
+        private int firstIndexAfter(long cursor) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (id(mid) <= cursor)
+                    low = mid + 1;
+                else
+                    high = mid;
+            }
+            return low;
+        }
+    }
+}
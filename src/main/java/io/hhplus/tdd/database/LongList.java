@@ -0,0 +1,51 @@
+package io.hhplus.tdd.database;
+
+import java.util.Arrays;
+
+/**
+ * long 값을 박싱 없이 순서대로 쌓아두는 리스트 (userId 별 내역 id 목록 등)
+ * - 동기화하지 않으므로 사용하는 쪽에서 모니터로 감싸서 사용
+ */
+class LongList {
+
+    private long[] values;
+    private int size;
+
+    LongList() {
+        this(8);
+    }
+
+    LongList(int capacity) {
+        this.values = new long[Math.max(capacity, 1)];
+    }
+
+    void add(long value) {
+        if (size == values.length)
+            values = Arrays.copyOf(values, values.length * 2);
+        values[size++] = value;
+    }
+
+    long get(int index) {
+        return values[index];
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * 오름차순으로 쌓인 경우에만 사용: value 보다 큰 첫 위치
+     */
+    int firstIndexAfter(long value) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] <= value)
+                low = mid + 1;
+            else
+                high = mid;
+        }
+        return low;
+    }
+}
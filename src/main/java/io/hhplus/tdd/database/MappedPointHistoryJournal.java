@@ -0,0 +1,312 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.PointHistoryPage;
+import io.hhplus.tdd.point.PointHistoryStore;
+import io.hhplus.tdd.point.TransactionType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * 메모리 매핑 파일에 내역을 이어 쓰는(append-only) 포인트 내역 저장소
+ * - 내역 1건 = 고정 크기(RECORD_SIZE) 레코드: id, userId, amount, updateMillis, type, CRC32
+ * - id 는 1부터 빠짐없이 발급하므로 레코드 위치 = id - 1 (위치를 따로 저장하지 않음)
+ * - 세그먼트 파일이 가득 차면 다음 파일로 넘어감 (history-{첫 id}.seg)
+ * - userId 별로는 내역 id 목록만 힙에 들고 있고, 시작할 때 세그먼트를 처음부터 한 번 읽어서 다시 만듦
+ * - 세그먼트당 건수는 기존 세그먼트 파일 크기를 따름 (segment-size 설정은 첫 세그먼트를 만들 때만 사용)
+ */
+public class MappedPointHistoryJournal implements PointHistoryStore {
+
+    private static final Logger log = LoggerFactory.getLogger(MappedPointHistoryJournal.class);
+
+    static final int RECORD_SIZE = 40;
+    private static final int ID = 0;
+    private static final int USER_ID = 8;
+    private static final int AMOUNT = 16;
+    private static final int UPDATE_MILLIS = 24;
+    private static final int TYPE = 32;
+    private static final int CHECKSUM = 36;
+
+    private final Path directory;
+    private final int recordsPerSegment;
+    private final boolean forceOnAppend;
+
+    private final List<Segment> segments = new CopyOnWriteArrayList<>();
+    private final ConcurrentHashMap<Long, LongList> idsByUser = new ConcurrentHashMap<>();
+
+    // 아래 값은 this 모니터 안에서만 변경
+    private long nextId = 1;
+
+    public MappedPointHistoryJournal(Path directory, long segmentBytes, boolean forceOnAppend) {
+        this.directory = directory;
+        this.forceOnAppend = forceOnAppend;
+        int configured = (int) Math.min(segmentBytes / RECORD_SIZE, Integer.MAX_VALUE / RECORD_SIZE);
+        if (configured < 1)
+            throw new IllegalArgumentException("세그먼트 크기는 " + RECORD_SIZE + "바이트 이상이어야 합니다.");
+
+        try {
+            Files.createDirectories(directory);
+            List<Path> files = segmentFiles();
+            this.recordsPerSegment = files.isEmpty() ? configured : recordsPerSegment(files);
+            if (recordsPerSegment != configured)
+                log.warn("기존 세그먼트 크기({}건)를 그대로 사용합니다. 설정한 크기: {}건", recordsPerSegment, configured);
+            recover(files);
+        } catch (IOException e) {
+            close();
+            throw new UncheckedIOException("포인트 내역 저널을 열 수 없습니다: " + directory, e);
+        } catch (RuntimeException e) {
+            // 복구 중 이미 연 세그먼트는 닫고 실패
+            close();
+            throw e;
+        }
+    }
+
+    @Override
+    public PointHistory insert(long userId, long amount, TransactionType type, long updateMillis) {
+        PointHistory history;
+        synchronized (this) {
+            long id = nextId;
+            Segment segment = segmentFor(id);
+            int position = (int) ((id - 1) % recordsPerSegment) * RECORD_SIZE;
+            write(segment.buffer, position, id, userId, amount, type, updateMillis);
+            if (forceOnAppend)
+                segment.buffer.force(position, RECORD_SIZE);
+            nextId++;
+            history = new PointHistory(id, userId, amount, type, updateMillis);
+        }
+
+        LongList ids = idsByUser.computeIfAbsent(userId, key -> new LongList());
+        synchronized (ids) {
+            ids.add(history.id());
+        }
+        return history;
+    }
+
+    @Override
+    public List<PointHistory> selectAllByUserId(long userId) {
+        LongList ids = idsByUser.get(userId);
+        if (ids == null)
+            return List.of();
+
+        synchronized (ids) {
+            List<PointHistory> histories = new ArrayList<>(ids.size());
+            for (int i = 0; i < ids.size(); i++)
+                histories.add(read(ids.get(i)));
+            return histories;
+        }
+    }
+
+    @Override
+    public PointHistoryPage selectPage(long userId, long cursor, int limit, TransactionType type) {
+        LongList ids = idsByUser.get(userId);
+        if (ids == null)
+            return new PointHistoryPage(List.of(), null);
+
+        synchronized (ids) {
+            List<PointHistory> page = new ArrayList<>(Math.min(limit, ids.size()));
+            int i = ids.firstIndexAfter(cursor);
+            for (; i < ids.size() && page.size() < limit; i++) {
+                PointHistory history = read(ids.get(i));
+                if (type == null || history.type() == type)
+                    page.add(history);
+            }
+            Long nextCursor = i < ids.size() && !page.isEmpty() ? page.get(page.size() - 1).id() : null;
+            return new PointHistoryPage(page, nextCursor);
+        }
+    }
+
+    @Override
+    public List<PointHistory> selectRange(long userId, long from, long to) {
+        LongList ids = idsByUser.get(userId);
+        if (ids == null)
+            return List.of();
+
+        synchronized (ids) {
+            int low = 0;
+            int high = ids.size();
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (updateMillisOf(ids.get(mid)) < from)
+                    low = mid + 1;
+                else
+                    high = mid;
+            }
+            List<PointHistory> range = new ArrayList<>();
+            for (int i = low; i < ids.size(); i++) {
+                PointHistory history = read(ids.get(i));
+                if (history.updateMillis() >= to)
+                    break;
+                range.add(history);
+            }
+            return range;
+        }
+    }
+
+    /**
+     * 호출 시점까지 저장된 내역을 id 순으로
+     */
+    @Override
+    public void forEachStored(Consumer<PointHistory> action) {
+        long lastId;
+        synchronized (this) {
+            lastId = nextId - 1;
+        }
+        for (long id = 1; id <= lastId; id++)
+            action.accept(read(id));
+    }
+
+    @Override
+    public synchronized void close() {
+        for (Segment segment : segments) {
+            segment.buffer.force();
+            try {
+                segment.channel.close();
+            } catch (IOException e) {
+                log.warn("세그먼트를 닫지 못했습니다: {}", segment.path, e);
+            }
+        }
+    }
+
+    private PointHistory read(long id) {
+        Segment segment = segments.get((int) ((id - 1) / recordsPerSegment));
+        int position = (int) ((id - 1) % recordsPerSegment) * RECORD_SIZE;
+        MappedByteBuffer buffer = segment.buffer;
+        return new PointHistory(
+                buffer.getLong(position + ID),
+                buffer.getLong(position + USER_ID),
+                buffer.getLong(position + AMOUNT),
+                TransactionType.values()[buffer.get(position + TYPE)],
+                buffer.getLong(position + UPDATE_MILLIS)
+        );
+    }
+
+    private long updateMillisOf(long id) {
+        Segment segment = segments.get((int) ((id - 1) / recordsPerSegment));
+        int position = (int) ((id - 1) % recordsPerSegment) * RECORD_SIZE;
+        return segment.buffer.getLong(position + UPDATE_MILLIS);
+    }
+
+    private static void write(MappedByteBuffer buffer, int position, long id, long userId, long amount, TransactionType type, long updateMillis) {
+        buffer.putLong(position + USER_ID, userId);
+        buffer.putLong(position + AMOUNT, amount);
+        buffer.putLong(position + UPDATE_MILLIS, updateMillis);
+        buffer.put(position + TYPE, (byte) type.ordinal());
+        buffer.putLong(position + ID, id);
+        buffer.putInt(position + CHECKSUM, checksum(buffer, position));
+    }
+
+    private static int checksum(MappedByteBuffer buffer, int position) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(position, CHECKSUM));
+        return (int) crc.getValue();
+    }
+
+    // this 모니터 안에서 호출: id 가 들어갈 세그먼트 (가득 찼으면 새로 만듦)
+    private Segment segmentFor(long id) {
+        int index = (int) ((id - 1) / recordsPerSegment);
+        if (index < segments.size())
+            return segments.get(index);
+
+        if (!segments.isEmpty())
+            segments.get(segments.size() - 1).buffer.force();
+        try {
+            Segment segment = Segment.open(directory.resolve(segmentFileName(id)), (long) recordsPerSegment * RECORD_SIZE);
+            segments.add(segment);
+            return segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException("포인트 내역 세그먼트를 만들 수 없습니다.", e);
+        }
+    }
+
+    private static String segmentFileName(long firstId) {
+        return String.format("history-%020d.seg", firstId);
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> list = Files.list(directory)) {
+            return list.filter(path -> path.getFileName().toString().matches("history-\\d{20}\\.seg"))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    /**
+     * 세그먼트 파일 크기 = 세그먼트당 건수 * RECORD_SIZE
+     * (마지막 파일은 만든 직후 중단됐다면 비어 있을 수 있음, 그 외엔 모두 같은 크기여야 함)
+     */
+    private static int recordsPerSegment(List<Path> files) throws IOException {
+        long size = Files.size(files.get(0));
+        for (int i = 0; i < files.size(); i++) {
+            long fileSize = Files.size(files.get(i));
+            boolean emptyLast = i == files.size() - 1 && fileSize == 0;
+            if (!emptyLast && (fileSize != size || size == 0 || size % RECORD_SIZE != 0))
+                throw new IllegalStateException("세그먼트 파일 크기가 맞지 않습니다: " + files.get(i) + " (" + fileSize + "바이트)");
+        }
+        return (int) (size / RECORD_SIZE);
+    }
+
+    /**
+     * 세그먼트를 순서대로 읽어서 userId 별 id 목록을 다시 만들고, 마지막으로 온전히 기록된 레코드 다음부터 이어서 씀
+     * - 마지막 세그먼트의 끝부분만 기록 도중 중단된 것으로 봄 (id 가 0 이거나, id 는 맞지만 CRC 가 다른 레코드부터)
+     * - 그 외에 id 가 이어지지 않으면 저장된 내역이 손상된 것이므로 지우지 않고 시작을 중단
+     */
+    private void recover(List<Path> files) throws IOException {
+        long expectedId = 1;
+        boolean truncated = false;
+        for (Path file : files) {
+            if (truncated || !file.getFileName().toString().equals(segmentFileName(expectedId)))
+                throw new IllegalStateException("이어지지 않는 세그먼트가 있습니다: " + file + " (다음 세그먼트: " + segmentFileName(expectedId) + ")");
+
+            Segment segment = Segment.open(file, (long) recordsPerSegment * RECORD_SIZE);
+            segments.add(segment);
+
+            MappedByteBuffer buffer = segment.buffer;
+            for (int slot = 0; slot < recordsPerSegment; slot++) {
+                int position = slot * RECORD_SIZE;
+                long id = buffer.getLong(position + ID);
+                if (id == expectedId && buffer.getInt(position + CHECKSUM) == checksum(buffer, position)) {
+                    idsByUser.computeIfAbsent(buffer.getLong(position + USER_ID), key -> new LongList()).add(expectedId);
+                    expectedId++;
+                    continue;
+                }
+                if (id != 0 && id != expectedId)
+                    throw new IllegalStateException("내역 id 가 이어지지 않습니다: " + file + " (위치 " + slot + ", id " + id + ", 기대한 id " + expectedId + ")");
+                checkUnwritten(buffer, slot + 1, file);
+                truncated = true;
+                break;
+            }
+        }
+        nextId = expectedId;
+        log.info("포인트 내역 저널 복구 완료: {}건, 세그먼트 {}개", nextId - 1, segments.size());
+    }
+
+    // 중단된 레코드 뒤로는 기록된 레코드가 없어야 함
+    private void checkUnwritten(MappedByteBuffer buffer, int fromSlot, Path file) {
+        for (int slot = fromSlot; slot < recordsPerSegment; slot++)
+            if (buffer.getLong(slot * RECORD_SIZE + ID) != 0)
+                throw new IllegalStateException("중단된 레코드 뒤에 기록된 레코드가 있습니다: " + file + " (위치 " + slot + ")");
+    }
+
+    private record Segment(Path path, FileChannel channel, MappedByteBuffer buffer) {
+
+        static Segment open(Path path, long size) throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            return new Segment(path, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.point.UserPoint;
+import io.hhplus.tdd.point.UserPointStore;
+import io.hhplus.tdd.point.VersionedUserPoint;
+
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * userId(long) 를 박싱하지 않는 오픈 어드레싱(선형 탐사) 잔고 저장소
+ * - 슬롯 1개 = long[] 안의 연속된 4칸 (userId, point, updateMillis, version) -> 조회 1번에 캐시 라인 1개
+ * - 유저 1명당 약 (32 + 1) / 적재율 바이트 (HashMap<Long, UserPoint> 는 키 박싱 + 레코드 + 노드로 80바이트 이상)
+ * - 조회는 Lock 없이 낙관적으로 읽고, 그 사이 쓰기가 있었으면 읽기 Lock 으로 다시 읽음
+ */
+public class PrimitiveUserPointStore implements UserPointStore {
+
+    private static final int STRIDE = 4;
+    private static final int USER_ID = 0;
+    private static final int POINT = 1;
+    private static final int UPDATE_MILLIS = 2;
+    private static final int VERSION = 3;
+
+    // insertOrUpdate 는 버전을 확인하지 않음
+    private static final long ANY_VERSION = -1;
+
+    private static final double MAX_LOAD_FACTOR = 0.7;
+    private static final int MAX_CAPACITY = 1 << 28;   // long[] 길이 한도 (capacity * STRIDE <= Integer.MAX_VALUE)
+
+    private final StampedLock lock = new StampedLock();
+
+    // 아래 값은 쓰기 Lock 안에서만 변경
+    private volatile Slots slots;
+    private int size;
+
+    public PrimitiveUserPointStore(int expectedSize) {
+        this.slots = new Slots(capacityFor(expectedSize));
+    }
+
+    @Override
+    public UserPoint selectById(long id) {
+        return selectVersioned(id).userPoint();
+    }
+
+    @Override
+    public VersionedUserPoint selectVersioned(long id) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            VersionedUserPoint versioned = slots.find(id);
+            if (lock.validate(stamp))
+                return versioned;
+        }
+
+        stamp = lock.readLock();
+        try {
+            return slots.find(id);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public UserPoint insertOrUpdate(long id, long amount) {
+        return write(id, amount, ANY_VERSION);
+    }
+
+    @Override
+    public UserPoint compareAndSet(long id, long expectedVersion, long amount) {
+        return write(id, amount, expectedVersion);
+    }
+
+    /**
+     * @return 저장된 잔고, expectedVersion 이 현재 버전과 다르면 null
+     */
+    private UserPoint write(long id, long amount, long expectedVersion) {
+        long updateMillis = System.currentTimeMillis();
+        long stamp = lock.writeLock();
+        try {
+            int slot = slots.slotOf(id);
+            long version = slots.used[slot] ? slots.entries[slot * STRIDE + VERSION] : 0;
+            if (expectedVersion != ANY_VERSION && expectedVersion != version)
+                return null;
+
+            if (!slots.used[slot]) {
+                if (size + 1 > slots.capacity * MAX_LOAD_FACTOR) {
+                    if (slots.capacity == MAX_CAPACITY)
+                        throw new IllegalStateException("잔고 저장소가 가득 찼습니다. (" + size + "명)");
+                    slots = slots.resize(slots.capacity * 2);
+                    slot = slots.slotOf(id);
+                }
+                size++;
+            }
+            slots.write(slot, id, amount, updateMillis, version + 1);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        return new UserPoint(id, amount, updateMillis);
+    }
+
+    @Override
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private static int capacityFor(int expectedSize) {
+        long required = (long) Math.ceil(Math.max(expectedSize, 1) / MAX_LOAD_FACTOR) + 1;
+        if (required > MAX_CAPACITY)
+            throw new IllegalArgumentException("잔고 저장소는 최대 " + (int) (MAX_CAPACITY * MAX_LOAD_FACTOR) + "명까지 담을 수 있습니다.");
+        return Integer.highestOneBit((int) required - 1) << 1;
+    }
+
+    // 연속된 userId 가 한 곳에 몰리지 않도록 비트를 섞음 (MurmurHash3 fmix64)
+    private static int hash(long id) {
+        long h = id;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+
+    /**
+     * 크기가 바뀌면 새 Slots 로 통째로 교체 (낙관적 읽기가 배열 하나만 보도록)
+     */
+    private static final class Slots {
+
+        private final int capacity;
+        private final int mask;
+        private final long[] entries;
+        private final boolean[] used;
+
+        private Slots(int capacity) {
+            this.capacity = capacity;
+            this.mask = capacity - 1;
+            this.entries = new long[capacity * STRIDE];
+            this.used = new boolean[capacity];
+        }
+
+        private VersionedUserPoint find(long id) {
+            // 낙관적 읽기 중 값이 바뀌어도 빈 슬롯이 항상 남아 있어서 끝나지만, 혹시 모르니 capacity 번까지만 탐사
+            int slot = hash(id) & mask;
+            for (int probes = 0; probes < capacity && used[slot]; probes++) {
+                int base = slot * STRIDE;
+                if (entries[base + USER_ID] == id)
+                    return new VersionedUserPoint(new UserPoint(id, entries[base + POINT], entries[base + UPDATE_MILLIS]), entries[base + VERSION]);
+                slot = (slot + 1) & mask;
+            }
+            return new VersionedUserPoint(UserPoint.empty(id), 0);
+        }
+
+        /**
+         * @return 같은 userId 가 있는 슬롯, 없으면 들어갈 빈 슬롯
+         */
+        private int slotOf(long id) {
+            int slot = hash(id) & mask;
+            while (used[slot] && entries[slot * STRIDE + USER_ID] != id)
+                slot = (slot + 1) & mask;
+            return slot;
+        }
+
+        private void write(int slot, long id, long point, long updateMillis, long version) {
+            int base = slot * STRIDE;
+            entries[base + USER_ID] = id;
+            entries[base + POINT] = point;
+            entries[base + UPDATE_MILLIS] = updateMillis;
+            entries[base + VERSION] = version;
+            used[slot] = true;
+        }
+
+        private Slots resize(int newCapacity) {
+            Slots resized = new Slots(newCapacity);
+            for (int slot = 0; slot < capacity; slot++) {
+                if (!used[slot])
+                    continue;
+                int base = slot * STRIDE;
+                long id = entries[base + USER_ID];
+                resized.write(resized.slotOf(id), id, entries[base + POINT], entries[base + UPDATE_MILLIS], entries[base + VERSION]);
+            }
+            return resized;
+        }
+    }
+}
@@ -0,0 +1,325 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.point.UserPoint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * 잔고 영속화: 잔고 로그(WAL 파일) + 주기적 스냅샷
+ * - 저장된 잔고는 WAL(balance-{첫 seq}.wal)에 (seq, userId, point, updateMillis) 로 이어 씀
+ * - Table 에 저장한 뒤에 기록하는 redo 로그라서, 기록에 실패하면 호출한 쪽이 Table 의 잔고를 되돌리고 되돌린 잔고를 다시 기록
+ * - 스냅샷(snapshot-{seq}.bin)은 그 seq 까지 반영된 전체 잔고. 쓰는 동안 WAL 쓰기를 막지 않음
+ *   (새 WAL 파일로 넘긴 뒤 잔고 맵을 순회, 순회 중 바뀐 잔고는 새 WAL 에도 있으니 재적용해도 결과가 같음)
+ * - 시작 시 최신 스냅샷을 읽고 그 뒤의 WAL 만 재적용 -> 시작 시간은 마지막 스냅샷 이후 쌓인 WAL 길이에 비례
+ * - 재시작 후 아직 한 번도 쓰지 않은 유저의 잔고는 recovered 로 조회 (UserPointTable 에 다시 넣지 않음)
+ */
+public class UserPointJournal implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(UserPointJournal.class);
+
+    private static final int WAL_RECORD_SIZE = 36;      // seq, userId, point, updateMillis (8 * 4) + CRC32 (4)
+    private static final int SNAPSHOT_MAGIC = 0x55504e54;
+
+    private final Path directory;
+    private final boolean forceOnAppend;
+
+    // 최신 잔고 전체 (스냅샷 대상)
+    private final ConcurrentHashMap<Long, UserPoint> latest = new ConcurrentHashMap<>();
+
+    // 재시작 후 아직 쓰지 않은 유저의 복구된 잔고
+    private final ConcurrentHashMap<Long, UserPoint> recovered = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService snapshotScheduler;
+
+    // 아래 값은 this 모니터 안에서만 변경
+    private FileChannel wal;
+    private long nextSeq = 1;
+    private final ByteBuffer record = ByteBuffer.allocate(WAL_RECORD_SIZE);
+
+    public UserPointJournal(Path directory, Duration snapshotInterval, boolean forceOnAppend) {
+        this.directory = directory;
+        this.forceOnAppend = forceOnAppend;
+        try {
+            Files.createDirectories(directory);
+            recover();
+            synchronized (this) {
+                rollWal();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("잔고 저널을 열 수 없습니다: " + directory, e);
+        }
+
+        this.snapshotScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "user-point-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = snapshotInterval.toMillis();
+        snapshotScheduler.scheduleWithFixedDelay(this::snapshotQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * userId Lock 안에서, UserPointTable 에 저장한 직후 호출 (실패하면 UncheckedIOException, 호출한 쪽에서 Table 의 잔고를 되돌려야 함)
+     */
+    public void append(UserPoint userPoint) {
+        synchronized (this) {
+            record.clear();
+            record.putLong(nextSeq)
+                    .putLong(userPoint.id())
+                    .putLong(userPoint.point())
+                    .putLong(userPoint.updateMillis());
+            record.putInt(checksum(record.array(), WAL_RECORD_SIZE - 4));
+            record.flip();
+            try {
+                while (record.hasRemaining())
+                    wal.write(record);
+                if (forceOnAppend)
+                    wal.force(false);
+            } catch (IOException e) {
+                // 레코드 일부만 쓰였을 수 있어서 이후 기록은 새 WAL 파일에 (복구 시 이 파일은 끊긴 레코드 앞까지만 읽음)
+                reopenWal(e);
+                throw new UncheckedIOException("잔고 WAL 기록에 실패했습니다.", e);
+            }
+            nextSeq++;
+            // 스냅샷이 seq 를 정하기 전에 반영돼 있어야 하므로 모니터 안에서
+            latest.put(userPoint.id(), userPoint);
+        }
+        recovered.remove(userPoint.id());
+    }
+
+    /**
+     * 재시작 후 아직 쓰지 않은 유저면 복구된 잔고, 아니면 null
+     */
+    public UserPoint recovered(long userId) {
+        return recovered.get(userId);
+    }
+
+    public int size() {
+        return latest.size();
+    }
+
+    /**
+     * 현재 잔고 전체를 스냅샷으로 남기고, 스냅샷에 포함된 이전 WAL/스냅샷 파일은 삭제
+     */
+    public void snapshot() throws IOException {
+        long snapshotSeq;
+        synchronized (this) {
+            // 이후 쓰기는 새 WAL 파일로 (스냅샷 seq 이전 기록만 옛 파일에 남음)
+            snapshotSeq = nextSeq - 1;
+            rollWal();
+        }
+
+        // magic, seq, (userId, point, updateMillis) * N, N, CRC32
+        // (순회 중에도 유저가 늘 수 있어서 건수는 다 쓴 뒤 끝에 기록)
+        Path temp = directory.resolve("snapshot.tmp");
+        try (OutputStream file = new BufferedOutputStream(Files.newOutputStream(temp))) {
+            CRC32 crc = new CRC32();
+            DataOutputStream body = new DataOutputStream(new CheckedOutputStream(file, crc));
+            body.writeInt(SNAPSHOT_MAGIC);
+            body.writeLong(snapshotSeq);
+            int count = 0;
+            for (UserPoint userPoint : latest.values()) {
+                body.writeLong(userPoint.id());
+                body.writeLong(userPoint.point());
+                body.writeLong(userPoint.updateMillis());
+                count++;
+            }
+            body.flush();
+
+            DataOutputStream trailer = new DataOutputStream(file);
+            trailer.writeInt(count);
+            trailer.writeLong(crc.getValue());
+            trailer.flush();
+        }
+        Files.move(temp, directory.resolve(String.format("snapshot-%020d.bin", snapshotSeq)),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        deleteBefore(snapshotSeq);
+        log.info("잔고 스냅샷 저장: seq={}, 유저 {}명", snapshotSeq, latest.size());
+    }
+
+    @Override
+    public void close() {
+        snapshotScheduler.shutdown();
+        try {
+            snapshotScheduler.awaitTermination(30, TimeUnit.SECONDS);
+            snapshot();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            log.warn("종료 시 잔고 스냅샷 저장에 실패했습니다.", e);
+        }
+        synchronized (this) {
+            try {
+                wal.force(true);
+                wal.close();
+            } catch (IOException e) {
+                log.warn("잔고 WAL 을 닫지 못했습니다.", e);
+            }
+        }
+    }
+
+    private void snapshotQuietly() {
+        try {
+            snapshot();
+        } catch (IOException | RuntimeException e) {
+            log.error("잔고 스냅샷 저장에 실패했습니다.", e);
+        }
+    }
+
+    // this 모니터 안에서 호출
+    private void rollWal() throws IOException {
+        if (wal != null) {
+            wal.force(false);
+            wal.close();
+        }
+        wal = openWal();
+    }
+
+    // this 모니터 안에서 호출: 기록에 실패한 WAL 은 닫고 nextSeq 부터 새 파일에
+    // 새 파일을 열지 못하면 닫힌 채로 두고 다음 기록 때 다시 시도
+    private void reopenWal(IOException failure) {
+        try {
+            wal.close();
+        } catch (IOException e) {
+            failure.addSuppressed(e);
+        }
+        try {
+            wal = openWal();
+        } catch (IOException e) {
+            failure.addSuppressed(e);
+        }
+    }
+
+    // 같은 이름의 파일이 이미 있다면 유효한 레코드가 없는 파일이라(있었다면 nextSeq 가 더 컸음) 비우고 새로 씀
+    private FileChannel openWal() throws IOException {
+        return FileChannel.open(directory.resolve(String.format("balance-%020d.wal", nextSeq)),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    private void recover() throws IOException {
+        long snapshotSeq = 0;
+        List<Path> snapshots = list("snapshot-\\d{20}\\.bin");
+        for (int i = snapshots.size() - 1; i >= 0; i--) {
+            Long seq = loadSnapshot(snapshots.get(i));
+            if (seq != null) {
+                snapshotSeq = seq;
+                break;
+            }
+            log.warn("손상된 스냅샷은 건너뜁니다: {}", snapshots.get(i));
+        }
+
+        long lastSeq = snapshotSeq;
+        int replayed = 0;
+        for (Path file : list("balance-\\d{20}\\.wal")) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+                byte[] bytes = new byte[WAL_RECORD_SIZE];
+                while (true) {
+                    try {
+                        in.readFully(bytes);
+                    } catch (EOFException e) {
+                        break;
+                    }
+                    ByteBuffer buffer = ByteBuffer.wrap(bytes);
+                    long seq = buffer.getLong();
+                    UserPoint userPoint = new UserPoint(buffer.getLong(), buffer.getLong(), buffer.getLong());
+                    // 기록 도중 중단된 레코드부터는 버림 (재시작하면 새 WAL 파일에 쓰므로 이 파일의 끝부분)
+                    if (buffer.getInt() != checksum(bytes, WAL_RECORD_SIZE - 4))
+                        break;
+                    if (seq <= snapshotSeq)
+                        continue;
+                    latest.put(userPoint.id(), userPoint);
+                    lastSeq = Math.max(lastSeq, seq);
+                    replayed++;
+                }
+            }
+        }
+
+        nextSeq = lastSeq + 1;
+        recovered.putAll(latest);
+        log.info("잔고 복구 완료: 스냅샷 seq={}, WAL {}건 재적용, 유저 {}명", snapshotSeq, replayed, latest.size());
+    }
+
+    /**
+     * @return 스냅샷 seq (손상된 파일이면 null)
+     */
+    private Long loadSnapshot(Path file) throws IOException {
+        byte[] bytes = Files.readAllBytes(file);
+        int bodyLength = bytes.length - 12;             // 끝의 건수(4) + CRC32(8) 제외
+        int entriesLength = bodyLength - 12;            // 앞의 magic(4) + seq(8) 제외
+        if (entriesLength < 0 || entriesLength % 24 != 0)
+            return null;
+
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bodyLength);
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        if (buffer.getInt() != SNAPSHOT_MAGIC)
+            return null;
+        long seq = buffer.getLong();
+
+        int count = entriesLength / 24;
+        Map<Long, UserPoint> loaded = new HashMap<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            UserPoint userPoint = new UserPoint(buffer.getLong(), buffer.getLong(), buffer.getLong());
+            loaded.put(userPoint.id(), userPoint);
+        }
+        if (buffer.getInt() != count || buffer.getLong() != crc.getValue())
+            return null;
+
+        latest.putAll(loaded);
+        return seq;
+    }
+
+    private void deleteBefore(long snapshotSeq) throws IOException {
+        for (Path file : list("snapshot-\\d{20}\\.bin"))
+            if (seqOf(file) < snapshotSeq)
+                Files.deleteIfExists(file);
+        // 스냅샷 직전에 넘긴 새 WAL 은 첫 seq 가 snapshotSeq + 1 이라 남고, 그 이전 WAL 만 삭제됨
+        for (Path file : list("balance-\\d{20}\\.wal"))
+            if (seqOf(file) <= snapshotSeq)
+                Files.deleteIfExists(file);
+    }
+
+    private List<Path> list(String pattern) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().matches(pattern)).sorted().toList();
+        }
+    }
+
+    private static long seqOf(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(name.indexOf('-') + 1, name.indexOf('.')));
+    }
+
+    private static int checksum(byte[] bytes, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, length);
+        return (int) crc.getValue();
+    }
+}
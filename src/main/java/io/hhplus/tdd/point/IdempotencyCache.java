@@ -0,0 +1,123 @@
+package io.hhplus.tdd.point;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 멱등키(Idempotency-Key)별 충전/사용 결과 캐시
+ * - 같은 유저가 같은 키로 다시 요청하면 Lock/Table 을 거치지 않고 처음 결과(또는 에러)를 그대로 반환
+ * - 처음 요청이 아직 처리 중이면 그 결과가 나올 때까지 기다림
+ * - 최대 maxSize 건, 저장 후 ttl 이 지나면 내보냄 (넣은 순서 = 만료 순서라 앞에서부터 정리)
+ * - 아직 처리 중인 키는 내보내지 않음 (내보내면 같은 키의 재시도가 다시 실행됨, 그동안은 maxSize 를 넘을 수 있음)
+ * - 잔고에 반영하기 전에 실패한 경우(Lock 대기 초과, 요청 수 제한)만 다시 시도할 수 있도록 기록하지 않고,
+ *   그 밖의 실패는 잔고에 반영됐을 수 있으므로 결과(에러)를 그대로 기록
+ */
+class IdempotencyCache {
+
+    record Key(long userId, String idempotencyKey) {
+    }
+
+    private record Entry(TransactionType type, long amount, CompletableFuture<UserPoint> result, long expiresAt) {
+    }
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>();
+
+    private final LongAdder replays = new LongAdder();
+
+    IdempotencyCache(int maxSize, long ttlNanos) {
+        this.maxSize = maxSize;
+        this.ttlNanos = ttlNanos;
+    }
+
+    UserPoint execute(Key key, TransactionType type, long amount, Supplier<UserPoint> action) {
+        if (maxSize <= 0)
+            return action.get();
+
+        Entry entry = new Entry(type, amount, new CompletableFuture<>(), System.nanoTime() + ttlNanos);
+        Entry existing;
+        synchronized (entries) {
+            evictExpired(System.nanoTime());
+            existing = entries.putIfAbsent(key, entry);
+            if (existing == null && entries.size() > maxSize)
+                evictEldest();
+        }
+
+        if (existing != null) {
+            if (existing.type() != type || existing.amount() != amount)
+                throw new IllegalArgumentException("같은 멱등키로 다른 요청을 보낼 수 없습니다.");
+            replays.increment();
+            return await(existing.result());
+        }
+
+        try {
+            UserPoint userPoint = action.get();
+            entry.result().complete(userPoint);
+            return userPoint;
+        } catch (Throwable e) {
+            if (beforeWrite(e)) {
+                synchronized (entries) {
+                    entries.remove(key, entry);
+                }
+            }
+            entry.result().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    long replayCount() {
+        return replays.sum();
+    }
+
+    // 잔고에 반영하기 전에 거절된 실패
+    private static boolean beforeWrite(Throwable e) {
+        return e instanceof LockTimeoutException || e instanceof LockInterruptedException || e instanceof TooManyRequestsException;
+    }
+
+    // entries 모니터 안에서 호출 (처리 중인 키는 건너뜀)
+    private void evictExpired(long now) {
+        Iterator<Map.Entry<Key, Entry>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next().getValue();
+            if (entry.expiresAt() - now > 0)
+                return;
+            if (entry.result().isDone())
+                iterator.remove();
+        }
+    }
+
+    // entries 모니터 안에서 호출 (처리가 끝난 가장 오래된 키, 모두 처리 중이면 내보내지 않음)
+    private void evictEldest() {
+        Iterator<Map.Entry<Key, Entry>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().getValue().result().isDone()) {
+                iterator.remove();
+                return;
+            }
+        }
+    }
+
+    private static UserPoint await(CompletableFuture<UserPoint> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause)
+                throw cause;
+            if (e.getCause() instanceof Error cause)
+                throw cause;
+            throw e;
+        }
+    }
+}
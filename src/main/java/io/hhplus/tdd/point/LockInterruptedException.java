@@ -0,0 +1,11 @@
+package io.hhplus.tdd.point;
+
+/**
+ * userId Lock(또는 샤드 차례)을 기다리는 중 스레드가 중단된 경우 (서버 종료 등, 대기 시간 초과와 구분)
+ */
+public class LockInterruptedException extends RuntimeException {
+
+    public LockInterruptedException(long userId, InterruptedException cause) {
+        super("요청 처리 대기 중 중단되었습니다. (userId: " + userId + ")", cause);
+    }
+}
@@ -0,0 +1,11 @@
+package io.hhplus.tdd.point;
+
+/**
+ * 제한 시간 안에 userId Lock 을 얻지 못한 경우
+ */
+public class LockTimeoutException extends RuntimeException {
+
+    public LockTimeoutException(long userId, long timeoutMillis) {
+        super("요청이 많아 처리하지 못했습니다. 잠시 후 다시 시도해주세요. (userId: " + userId + ", 대기: " + timeoutMillis + "ms)");
+    }
+}
@@ -0,0 +1,73 @@
+package io.hhplus.tdd.point;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 낙관적 저장의 충돌 기록
+ * - 재시도 사이엔 최대 대기 시간이 2배씩 늘어나는 무작위 대기 (충돌한 스레드끼리 다시 부딪히지 않게)
+ * - 재시도를 다 쓴 유저는 일정 시간 동안 Lock 으로 처리 (충돌이 계속되는 유저에게 재시도 비용을 쓰지 않음)
+ */
+class OptimisticContention {
+
+    private final long backoffNanos;
+    private final long fallbackNanos;
+
+    // userId -> 이 시각(nanoTime)까지는 Lock 으로 처리
+    private final ConcurrentHashMap<Long, Long> lockedUntil = new ConcurrentHashMap<>();
+
+    private final LongAdder conflicts = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+
+    OptimisticContention(long backoffNanos, long fallbackNanos) {
+        this.backoffNanos = backoffNanos;
+        this.fallbackNanos = fallbackNanos;
+    }
+
+    boolean shouldLock(long userId) {
+        Long until = lockedUntil.get(userId);
+        if (until == null)
+            return false;
+        if (until - System.nanoTime() > 0)
+            return true;
+        lockedUntil.remove(userId, until);
+        return false;
+    }
+
+    /**
+     * 충돌 기록 후 attempt(0부터) 번째 재시도 전까지 대기
+     */
+    void backoff(int attempt) {
+        conflicts.increment();
+        long bound = backoffNanos << Math.min(attempt, 20);
+        if (bound > 0)
+            LockSupport.parkNanos(ThreadLocalRandom.current().nextLong(bound) + 1);
+    }
+
+    /**
+     * Lock 안에서 충돌했을 때 다시 시도하기 전까지 대기 (Lock 을 잡고 있으므로 늘리지 않고 backoff 만큼만)
+     */
+    void pause() {
+        conflicts.increment();
+        LockSupport.parkNanos(Math.max(backoffNanos, 1));
+    }
+
+    void fallBack(long userId) {
+        fallbacks.increment();
+        lockedUntil.put(userId, System.nanoTime() + fallbackNanos);
+    }
+
+    long conflictCount() {
+        return conflicts.sum();
+    }
+
+    long fallbackCount() {
+        return fallbacks.sum();
+    }
+
+    int lockedUserCount() {
+        return lockedUntil.size();
+    }
+}
@@ -0,0 +1,89 @@
+package io.hhplus.tdd.point;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 충전/사용, 조회를 처리하기 전에 요청 수를 제한
+ * - 유저별로 처리 중이거나 차례를 기다리는(Lock, 그룹 커밋, 비동기 대기열) 요청이 maxPendingPerUser 건이면 그 유저의 새 요청은 바로 거절
+ *   (한 유저에게 몰린 요청이 스레드를 모두 잡고 있지 않게)
+ * - 전체에서 처리 중이거나 차례를 기다리는 요청이 maxInFlight 건이면 새 요청은 바로 거절
+ * - 거절은 기다리지 않고 TooManyRequestsException (429 + Retry-After)
+ * - 대기열에 넣거나 Lock 을 기다리는 등 어떤 상태도 바꾸기 전에 확인 (거절된 요청이 나중에 처리되지 않게)
+ * - 동기 API(Tomcat 스레드를 잡고 기다림)와 비동기 API(스레드 없이 대기열에서 기다림)는 한도가 달라서 인스턴스를 따로 만들어 셈
+ */
+class PointAdmission {
+
+    private final int maxPendingPerUser;
+    private final int maxInFlight;
+    private final long retryAfterSeconds;
+
+    // 요청이 남아 있는 유저만 보관 (0건이 되면 제거)
+    private final ConcurrentHashMap<Long, Integer> pendingByUser = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final LongAdder userRejections = new LongAdder();
+    private final LongAdder globalRejections = new LongAdder();
+
+    PointAdmission(int maxPendingPerUser, int maxInFlight, long retryAfterSeconds) {
+        this.maxPendingPerUser = maxPendingPerUser;
+        this.maxInFlight = maxInFlight;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    <T> T execute(long userId, Supplier<T> action) {
+        acquire(userId);
+        try {
+            return action.get();
+        } finally {
+            release(userId);
+        }
+    }
+
+    /**
+     * 자리를 얻지 못하면 TooManyRequestsException, 얻었다면 처리가 끝난 뒤 release 로 반환해야 함
+     * (비동기 요청은 대기열에 넣기 전에 얻고, 작업이 끝날 때 반환)
+     */
+    void acquire(long userId) {
+        if (inFlight.incrementAndGet() > maxInFlight) {
+            inFlight.decrementAndGet();
+            globalRejections.increment();
+            throw new TooManyRequestsException("요청이 너무 많습니다. 잠시 후 다시 시도해주세요. (처리 중: " + maxInFlight + "건)", retryAfterSeconds);
+        }
+        if (pendingByUser.merge(userId, 1, Integer::sum) > maxPendingPerUser) {
+            release(userId);
+            userRejections.increment();
+            throw new TooManyRequestsException("같은 유저의 요청이 너무 많습니다. 잠시 후 다시 시도해주세요. (userId: " + userId + ", 대기: " + maxPendingPerUser + "건)", retryAfterSeconds);
+        }
+    }
+
+    void release(long userId) {
+        pendingByUser.computeIfPresent(userId, (id, count) -> count == 1 ? null : count - 1);
+        inFlight.decrementAndGet();
+    }
+
+    int inFlightCount() {
+        return inFlight.get();
+    }
+
+    int pendingUserCount() {
+        return pendingByUser.size();
+    }
+
+    /**
+     * 요청이 가장 많이 몰린 유저의 요청 수 (요청이 남아 있는 유저만 순회)
+     */
+    int maxPendingCount() {
+        return pendingByUser.values().stream().mapToInt(Integer::intValue).max().orElse(0);
+    }
+
+    long userRejectionCount() {
+        return userRejections.sum();
+    }
+
+    long globalRejectionCount() {
+        return globalRejections.sum();
+    }
+}
@@ -0,0 +1,54 @@
+package io.hhplus.tdd.point;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * PointController 와 같은 기능의 비동기 API
+ * - 요청 스레드는 작업만 넘기고 바로 반환, 결과는 CompletableFuture 가 완료될 때 응답
+ * - 같은 유저의 충전/사용이 몰려도 차례를 기다리는 요청이 Tomcat 스레드를 잡고 있지 않음
+ * - 조건부 조회(ETag), 멱등키는 PointController 와 같게 처리
+ */
+@RestController
+@RequestMapping("/async/point")
+@RequiredArgsConstructor
+public class PointAsyncController {
+
+    private final PointService pointService;
+
+    @GetMapping("{id}")
+    public CompletableFuture<UserPoint> point(@PathVariable long id, WebRequest request) {
+        if (PointController.notModified(pointService, id, PointController.JSON, request))
+            return null;
+        return pointService.selectByIdAsync(id);
+    }
+
+    @GetMapping("{id}/histories")
+    public CompletableFuture<List<PointHistory>> history(@PathVariable long id, WebRequest request) {
+        if (PointController.notModified(pointService, id, PointController.JSON, request))
+            return null;
+        return pointService.selectHistoryByIdAsync(id);
+    }
+
+    @PatchMapping("{id}/charge")
+    public CompletableFuture<UserPoint> charge(
+            @PathVariable long id,
+            @RequestBody long amount,
+            @RequestHeader(value = PointController.IDEMPOTENCY_KEY, required = false) String idempotencyKey
+    ) {
+        return pointService.chargeAsync(id, amount, idempotencyKey);
+    }
+
+    @PatchMapping("{id}/use")
+    public CompletableFuture<UserPoint> use(
+            @PathVariable long id,
+            @RequestBody long amount,
+            @RequestHeader(value = PointController.IDEMPOTENCY_KEY, required = false) String idempotencyKey
+    ) {
+        return pointService.useAsync(id, amount, idempotencyKey);
+    }
+}
@@ -0,0 +1,72 @@
+package io.hhplus.tdd.point;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 그룹 커밋 대기열에 쌓이는 충전/사용 요청 1건
+ * - 요청한 스레드는 result 가 완료될 때까지 기다렸다가 자기 결과(또는 예외)를 받아감
+ * - 배치에 포함될 때(claim)와 요청한 스레드가 포기할 때(cancel) 중 먼저 한 쪽만 성공
+ *   (Lock 을 얻지 못해 실패 응답을 받은 요청이 나중에 다른 스레드의 배치에서 처리되지 않게)
+ */
+class PointCommand {
+
+    private final TransactionType type;
+    private final long amount;
+    private static final int QUEUED = 0;
+    private static final int CLAIMED = 1;
+    private static final int CANCELLED = 2;
+
+    private final CompletableFuture<UserPoint> result = new CompletableFuture<>();
+    private final AtomicInteger state = new AtomicInteger(QUEUED);
+
+    PointCommand(TransactionType type, long amount) {
+        this.type = type;
+        this.amount = amount;
+    }
+
+    TransactionType type() {
+        return type;
+    }
+
+    long amount() {
+        return amount;
+    }
+
+    /**
+     * @return 아직 대기 중이라 배치에 포함했으면 true (취소된 요청이면 false)
+     */
+    boolean claim() {
+        return state.compareAndSet(QUEUED, CLAIMED);
+    }
+
+    /**
+     * @return 아직 배치에 포함되기 전이라 취소했으면 true
+     */
+    boolean cancel() {
+        return state.compareAndSet(QUEUED, CANCELLED);
+    }
+
+    boolean isDone() {
+        return result.isDone();
+    }
+
+    void complete(UserPoint userPoint) {
+        result.complete(userPoint);
+    }
+
+    void fail(Throwable e) {
+        result.completeExceptionally(e);
+    }
+
+    UserPoint await() {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause)
+                throw cause;
+            throw e;
+        }
+    }
+}
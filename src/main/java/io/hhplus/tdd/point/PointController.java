@@ -1,9 +1,16 @@
 package io.hhplus.tdd.point;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -14,37 +21,196 @@ public class PointController {
 
     private static final Logger log = LoggerFactory.getLogger(PointController.class);
 
+    private static final int STREAM_CHUNK_SIZE = 500;
+
+    // 재시도한 충전/사용 요청이 두 번 반영되지 않도록 클라이언트가 요청마다 붙이는 키
+    static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
+    // 같은 URL 의 내역 조회도 응답 형식(Accept)마다 ETag 가 다르도록 붙이는 값
+    static final String JSON = "json";
+    static final String BINARY = "binary";
+
     private final PointService pointService;
+    private final ObjectMapper objectMapper;
 
     /**
      * TODO - 특정 유저의 포인트를 조회하는 기능을 작성해주세요.
      */
     @GetMapping("{id}")
-    public UserPoint point(@PathVariable long id) {
+    public UserPoint point(@PathVariable long id, WebRequest request) {
+        if (notModified(pointService, id, JSON, request))
+            return null;
         return pointService.selectById(id);
     }
 
     /**
      * TODO - 특정 유저의 포인트 충전/이용 내역을 조회하는 기능을 작성해주세요.
+     * - from/to(epoch millis) 를 주면 updateMillis 가 from 이상, to 미만인 내역만
      */
     @GetMapping("{id}/histories")
-    public List<PointHistory> history(@PathVariable long id) {
-        return pointService.selectHistoryById(id);
+    public List<PointHistory> history(
+            @PathVariable long id,
+            @RequestParam(required = false) Long from,
+            @RequestParam(required = false) Long to,
+            WebRequest request,
+            HttpServletResponse response
+    ) {
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        if (notModified(pointService, id, JSON, request))
+            return null;
+        if (from == null && to == null)
+            return pointService.selectHistoryById(id);
+        return pointService.selectHistoryByIdBetween(id, from == null ? Long.MIN_VALUE : from, to == null ? Long.MAX_VALUE : to);
+    }
+
+    /**
+     * 내역 조회의 바이너리 응답 (Accept: application/x-point-binary, 서비스 간 통신용, 포맷은 PointWireFormat)
+     * - 전체 내역은 저장소에서 바로 응답 버퍼로 씀
+     */
+    @GetMapping(value = "{id}/histories", produces = PointWireFormat.MEDIA_TYPE_VALUE)
+    public ResponseEntity<StreamingResponseBody> historyBinary(
+            @PathVariable long id,
+            @RequestParam(required = false) Long from,
+            @RequestParam(required = false) Long to,
+            WebRequest request,
+            HttpServletResponse response
+    ) {
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        if (notModified(pointService, id, BINARY, request))
+            return null;
+
+        // 기간 조회는 잘못된 요청을 응답을 쓰기 전에 거절하도록 미리 조회
+        List<PointHistory> range = from == null && to == null
+                ? null
+                : pointService.selectHistoryByIdBetween(id, from == null ? Long.MIN_VALUE : from, to == null ? Long.MAX_VALUE : to);
+        StreamingResponseBody body = out -> {
+            PointWireFormat.HistoryWriter writer = new PointWireFormat.HistoryWriter(out, id);
+            if (range == null)
+                pointService.writeHistoryById(id, writer);
+            else
+                range.forEach(writer::write);
+            writer.finish();
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(PointWireFormat.MEDIA_TYPE_VALUE))
+                .body(body);
+    }
+
+    /**
+     * 전체 유저의 포인트 충전/이용 내역 중 updateMillis 가 from 이상, to 미만인 내역을 시각 순으로 NDJSON 출력 (정산용)
+     */
+    @GetMapping(value = "histories/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportHistories(@RequestParam long from, @RequestParam long to) {
+        List<PointHistory> histories = pointService.exportHistories(from, to);
+        StreamingResponseBody body = out -> {
+            for (int i = 0; i < histories.size(); i++) {
+                out.write(objectMapper.writeValueAsBytes(histories.get(i)));
+                out.write('\n');
+                if ((i + 1) % STREAM_CHUNK_SIZE == 0)
+                    out.flush();
+            }
+            out.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(MediaType.APPLICATION_NDJSON_VALUE))
+                .body(body);
+    }
+
+    /**
+     * 특정 유저의 포인트 충전/이용 합계와 건수 (내역 전체를 받아서 더하지 않아도 되도록)
+     */
+    @GetMapping("{id}/summary")
+    public PointSummary summary(@PathVariable long id) {
+        return pointService.selectSummaryById(id);
+    }
+
+    /**
+     * 특정 유저의 포인트 충전/이용 내역을 cursor(마지막으로 받은 내역 id) 이후부터 limit 건씩 조회
+     */
+    @GetMapping("{id}/histories/page")
+    public PointHistoryPage historyPage(
+            @PathVariable long id,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(defaultValue = "100") int limit,
+            @RequestParam(required = false) TransactionType type
+    ) {
+        return pointService.selectHistoryPage(id, cursor, limit, type);
+    }
+
+    /**
+     * 특정 유저의 포인트 충전/이용 내역을 NDJSON(한 줄에 내역 1건)으로 스트리밍
+     * - 전체 목록을 만들지 않고 STREAM_CHUNK_SIZE 건씩 읽으면서 바로 내보냄
+     */
+    @GetMapping(value = "{id}/histories/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> historyStream(
+            @PathVariable long id,
+            @RequestParam(required = false) TransactionType type
+    ) {
+        StreamingResponseBody body = out -> {
+            Long cursor = null;
+            do {
+                PointHistoryPage page = pointService.selectHistoryPage(id, cursor, STREAM_CHUNK_SIZE, type);
+                for (PointHistory history : page.histories()) {
+                    out.write(objectMapper.writeValueAsBytes(history));
+                    out.write('\n');
+                }
+                out.flush();
+                cursor = page.nextCursor();
+            } while (cursor != null);
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(MediaType.APPLICATION_NDJSON_VALUE))
+                .body(body);
     }
 
     /**
      * TODO - 특정 유저의 포인트를 충전하는 기능을 작성해주세요.
      */
     @PatchMapping("{id}/charge")
-    public UserPoint charge(@PathVariable long id, @RequestBody long amount) {
-        return pointService.charge(id, amount);
+    public UserPoint charge(
+            @PathVariable long id,
+            @RequestBody long amount,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey
+    ) {
+        return pointService.charge(id, amount, idempotencyKey);
     }
 
     /**
      * TODO - 특정 유저의 포인트를 사용하는 기능을 작성해주세요.
      */
     @PatchMapping("{id}/use")
-    public UserPoint use(@PathVariable long id, @RequestBody long amount) {
-        return pointService.use(id, amount);
+    public UserPoint use(
+            @PathVariable long id,
+            @RequestBody long amount,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey
+    ) {
+        return pointService.use(id, amount, idempotencyKey);
+    }
+
+    /**
+     * 여러 유저의 포인트를 한 번에 충전/사용 (요청 순서대로 건별 결과 반환)
+     */
+    @PostMapping("bulk")
+    public List<PointOperationResult> bulk(@RequestBody List<PointOperation> operations) {
+        return pointService.bulk(operations);
+    }
+
+    /**
+     * 일괄 처리 결과의 바이너리 응답 (Accept: application/x-point-binary)
+     */
+    @PostMapping(value = "bulk", produces = PointWireFormat.MEDIA_TYPE_VALUE)
+    public ResponseEntity<StreamingResponseBody> bulkBinary(@RequestBody List<PointOperation> operations) {
+        List<PointOperationResult> results = pointService.bulk(operations);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(PointWireFormat.MEDIA_TYPE_VALUE))
+                .body(out -> PointWireFormat.writeResults(results, out));
+    }
+
+    /**
+     * 유저의 잔고/내역이 클라이언트가 가진 버전(If-None-Match) 이후로 바뀌지 않았으면 true -> 304 (Table 조회 없음)
+     * 바뀌었으면 응답에 ETag 만 붙임 (ETag = 버전 + 응답 형식)
+     */
+    static boolean notModified(PointService pointService, long id, String representation, WebRequest request) {
+        return request.checkNotModified("\"" + pointService.versionOf(id) + "-" + representation + "\"");
     }
 }
@@ -0,0 +1,92 @@
+package io.hhplus.tdd.point;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * userId 별 포인트 내역 인덱스
+ * - 전체 내역 Table 을 훑지 않고, 해당 유저의 내역만 바로 꺼내기 위함 (조회가 다른 유저의 내역을 건드리지 않음)
+ * - Table 에 insert 될 때마다 뒤에 붙임(append). PointService 만 Table 에 쓰고 Table 은 비어있는 상태로 시작하므로 Table 을 다시 읽지 않음
+ * - append 는 해당 userId 의 Lock 안에서(비동기 저장은 저장 스레드 1개에서) 호출해야 내역 순서가 어긋나지 않음
+ */
+class PointHistoryIndex {
+
+    private final ConcurrentHashMap<Long, List<PointHistory>> entries = new ConcurrentHashMap<>();
+
+    List<PointHistory> get(long userId) {
+        List<PointHistory> histories = entries.get(userId);
+        if (histories == null)
+            return List.of();
+        synchronized (histories) {
+            return List.copyOf(histories);
+        }
+    }
+
+    /**
+     * id 가 cursor 보다 큰 내역을 id 순으로 최대 limit 건 (type 이 null 이면 전체)
+     * - 내역은 id 순으로 쌓이므로 시작 위치는 이진 탐색
+     */
+    PointHistoryPage page(long userId, long cursor, int limit, TransactionType type) {
+        List<PointHistory> histories = entries.get(userId);
+        if (histories == null)
+            return new PointHistoryPage(List.of(), null);
+
+        synchronized (histories) {
+            List<PointHistory> page = new ArrayList<>(Math.min(limit, histories.size()));
+            int i = firstIndexAfter(histories, cursor);
+            for (; i < histories.size() && page.size() < limit; i++) {
+                PointHistory history = histories.get(i);
+                if (type == null || history.type() == type)
+                    page.add(history);
+            }
+            Long nextCursor = i < histories.size() && !page.isEmpty() ? page.get(page.size() - 1).id() : null;
+            return new PointHistoryPage(page, nextCursor);
+        }
+    }
+
+    /**
+     * updateMillis 가 from 이상, to 미만인 내역 (유저별 내역은 updateMillis 순이기도 해서 시작 위치는 이진 탐색)
+     */
+    List<PointHistory> range(long userId, long from, long to) {
+        List<PointHistory> histories = entries.get(userId);
+        if (histories == null)
+            return List.of();
+
+        synchronized (histories) {
+            int low = 0;
+            int high = histories.size();
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (histories.get(mid).updateMillis() < from)
+                    low = mid + 1;
+                else
+                    high = mid;
+            }
+            List<PointHistory> range = new ArrayList<>();
+            for (int i = low; i < histories.size() && histories.get(i).updateMillis() < to; i++)
+                range.add(histories.get(i));
+            return range;
+        }
+    }
+
+    private static int firstIndexAfter(List<PointHistory> histories, long cursor) {
+        int low = 0;
+        int high = histories.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (histories.get(mid).id() <= cursor)
+                low = mid + 1;
+            else
+                high = mid;
+        }
+        return low;
+    }
+
+    void append(long userId, PointHistory history) {
+        List<PointHistory> histories = entries.computeIfAbsent(userId, id -> new ArrayList<>());
+        synchronized (histories) {
+            histories.add(history);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.database.PointHistoryTable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 포인트 내역 비동기 저장 (outbox)
+ * - 충전/사용 요청은 내역을 대기열에 넣기만 하고 바로 반환, 백그라운드 스레드 1개가 순서대로 PointHistoryTable 에 저장
+ * - 저장 전인 내역은 userId 별로 따로 들고 있다가 조회 시 함께 보여줌 (아직 id 가 없어서 id 는 0)
+ */
+class PointHistoryOutbox {
+
+    private static final Logger log = LoggerFactory.getLogger(PointHistoryOutbox.class);
+
+    private final PointHistoryTable pointHistoryTable;
+    private final PointHistoryIndex pointHistoryIndex;
+    private final PointHistoryTimeline pointHistoryTimeline;    // 전체 기간 조회를 켠 경우에만 사용
+    private final PointVersions pointVersions;
+    private final PointMetrics pointMetrics;
+
+    // 전체 저장 순서 (userId 별 순서도 그대로 유지됨)
+    private final BlockingQueue<PointHistory> queue;
+
+    // userId 별 저장 전 내역
+    private final ConcurrentHashMap<Long, Deque<PointHistory>> pending = new ConcurrentHashMap<>();
+
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    PointHistoryOutbox(PointHistoryTable pointHistoryTable, PointHistoryIndex pointHistoryIndex, PointHistoryTimeline pointHistoryTimeline,
+                       PointVersions pointVersions, PointMetrics pointMetrics, int capacity) {
+        this.pointHistoryTable = pointHistoryTable;
+        this.pointHistoryIndex = pointHistoryIndex;
+        this.pointHistoryTimeline = pointHistoryTimeline;
+        this.pointVersions = pointVersions;
+        this.pointMetrics = pointMetrics;
+        this.queue = new LinkedBlockingQueue<>(capacity);
+        this.writer = new Thread(this::drain, "point-history-outbox");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * userId Lock 안에서 호출 (대기열이 가득 차 있으면 자리가 날 때까지 기다림)
+     */
+    void add(long userId, long amount, TransactionType type, long updateMillis) {
+        PointHistory history = new PointHistory(0, userId, amount, type, updateMillis);
+        while (true) {
+            Deque<PointHistory> histories = pending.computeIfAbsent(userId, id -> new ArrayDeque<>());
+            synchronized (histories) {
+                // 방금 비워져서 정리된 대기열이면 새로 받아옴
+                if (pending.get(userId) == histories) {
+                    histories.addLast(history);
+                    break;
+                }
+            }
+        }
+        try {
+            queue.put(history);
+        } catch (InterruptedException e) {
+            // 대기열에 넣지 못한 내역은 저장되지 않으므로 조회에도 보이지 않게
+            forgetPending(userId, history);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("포인트 내역 저장 대기 중 중단되었습니다.", e);
+        }
+    }
+
+    private void forgetPending(long userId, PointHistory history) {
+        Deque<PointHistory> histories = pending.get(userId);
+        synchronized (histories) {
+            histories.removeLastOccurrence(history);
+            if (histories.isEmpty())
+                pending.remove(userId, histories);
+        }
+    }
+
+    /**
+     * 저장된 내역(persisted)에 아직 저장 전인 내역을 이어붙여서 반환
+     */
+    List<PointHistory> withPending(long userId, Supplier<List<PointHistory>> persisted) {
+        Deque<PointHistory> histories = pending.get(userId);
+        if (histories == null)
+            return persisted.get();
+
+        // 저장 완료 처리(인덱스 추가 + 대기열에서 제거)와 엇갈리지 않게 같은 모니터 안에서 읽음
+        synchronized (histories) {
+            List<PointHistory> result = new ArrayList<>(persisted.get());
+            result.addAll(histories);
+            return result;
+        }
+    }
+
+    int pendingCount() {
+        return queue.size();
+    }
+
+    /**
+     * 남은 내역을 모두 저장하고 종료
+     */
+    void close() {
+        running = false;
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!queue.isEmpty())
+            log.warn("저장하지 못한 포인트 내역 {}건이 남아있습니다.", queue.size());
+    }
+
+    private void drain() {
+        while (running || !queue.isEmpty()) {
+            PointHistory history;
+            try {
+                history = queue.poll(100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                continue;
+            }
+            if (history == null)
+                continue;
+
+            PointHistory saved = insert(history);
+            if (pointHistoryTimeline != null)
+                pointHistoryTimeline.add(saved);
+
+            Deque<PointHistory> histories = pending.get(history.userId());
+            synchronized (histories) {
+                pointHistoryIndex.append(history.userId(), saved);
+                histories.removeFirst();
+                if (histories.isEmpty())
+                    pending.remove(history.userId(), histories);
+            }
+            // 조회 결과에서 id 가 0 이던 내역에 id 가 생겼으므로
+            pointVersions.increment(history.userId());
+        }
+    }
+
+    // 저장에 실패하면 성공할 때까지 재시도 (순서를 지키기 위해 다음 내역으로 넘어가지 않음)
+    private PointHistory insert(PointHistory history) {
+        while (true) {
+            try {
+                return pointMetrics.table(PointMetrics.POINT_HISTORY_TABLE, "insert", PointMetrics.OUTBOX,
+                        () -> pointHistoryTable.insert(history.userId(), history.amount(), history.type(), history.updateMillis()));
+            } catch (RuntimeException e) {
+                log.error("포인트 내역 저장 실패, 재시도합니다. userId={}", history.userId(), e);
+                try {
+                    TimeUnit.MILLISECONDS.sleep(100);
+                } catch (InterruptedException ignored) {
+                }
+            }
+        }
+    }
+}
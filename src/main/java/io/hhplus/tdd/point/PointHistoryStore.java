@@ -0,0 +1,42 @@
+package io.hhplus.tdd.point;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * PointHistoryTable 대신 쓸 수 있는 포인트 내역 저장소
+ * - id 발급부터 userId 별 조회까지 저장소가 직접 처리 (PointService 의 인덱스/비동기 저장을 거치지 않음)
+ * - insert 는 userId Lock 안에서 호출되지만, 서로 다른 유저의 insert 는 동시에 들어올 수 있음
+ */
+public interface PointHistoryStore extends AutoCloseable {
+
+    PointHistory insert(long userId, long amount, TransactionType type, long updateMillis);
+
+    List<PointHistory> selectAllByUserId(long userId);
+
+    /**
+     * selectAllByUserId 와 같은 내역을 객체 없이 순서대로 넘김 (바이너리 응답용)
+     */
+    default void forEach(long userId, PointHistoryVisitor visitor) {
+        for (PointHistory history : selectAllByUserId(userId))
+            visitor.visit(history.id(), history.amount(), history.type(), history.updateMillis());
+    }
+
+    /**
+     * id 가 cursor 보다 큰 내역을 id 순으로 최대 limit 건 (type 이 null 이면 전체)
+     */
+    PointHistoryPage selectPage(long userId, long cursor, int limit, TransactionType type);
+
+    /**
+     * updateMillis 가 from 이상, to 미만인 내역 (유저별 내역은 updateMillis 가 줄어들지 않는 순서로 저장됨)
+     */
+    List<PointHistory> selectRange(long userId, long from, long to);
+
+    /**
+     * 저장된 전체 내역 (재시작 후 남아 있는 내역 포함, 시작할 때 전체 기간 인덱스를 채우는 데 사용)
+     */
+    void forEachStored(Consumer<PointHistory> action);
+
+    @Override
+    void close();
+}
@@ -0,0 +1,35 @@
+package io.hhplus.tdd.point;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * 전체 유저의 내역을 updateMillis 순으로 모아둔 인덱스 (정산용 기간 조회)
+ * - 같은 시각(ms)의 내역은 한 묶음으로 저장, 기간 조회는 해당 구간의 묶음만 읽음 (다른 시각/유저는 훑지 않음)
+ * - 저장이 끝나 id 가 발급된 내역만 추가
+ */
+class PointHistoryTimeline {
+
+    private final ConcurrentSkipListMap<Long, List<PointHistory>> buckets = new ConcurrentSkipListMap<>();
+
+    void add(PointHistory history) {
+        List<PointHistory> bucket = buckets.computeIfAbsent(history.updateMillis(), millis -> new ArrayList<>(2));
+        synchronized (bucket) {
+            bucket.add(history);
+        }
+    }
+
+    /**
+     * updateMillis 가 from 이상, to 미만인 내역
+     */
+    List<PointHistory> range(long from, long to) {
+        List<PointHistory> range = new ArrayList<>();
+        for (List<PointHistory> bucket : buckets.subMap(from, true, to, false).values()) {
+            synchronized (bucket) {
+                range.addAll(bucket);
+            }
+        }
+        return range;
+    }
+}
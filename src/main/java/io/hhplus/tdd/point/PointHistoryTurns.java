@@ -0,0 +1,39 @@
+package io.hhplus.tdd.point;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 낙관적 모드에서 잔고 버전 순서대로 내역을 저장하기 위한 유저별 차례
+ * - compareAndSet 으로 버전 v 를 만든 요청은 버전 v-1 의 내역이 저장된 뒤에 자기 내역을 저장 (잔고가 바뀐 순서 = 내역 순서)
+ * - 앞 버전의 내역이 이미 저장됐으면 기다리지 않음 (Lock 없이 volatile 읽기 1번)
+ * - 낙관적 모드에선 잔고 저장이 모두 compareAndSet 이라 버전이 0 부터 빠짐없이 1씩 오름
+ */
+class PointHistoryTurns {
+
+    private static final int SPINS = 100;
+
+    // userId -> 내역까지 저장된 마지막 잔고 버전
+    private final ConcurrentHashMap<Long, AtomicLong> storedVersions = new ConcurrentHashMap<>();
+
+    /**
+     * version 바로 앞 버전의 내역이 저장될 때까지 기다림 (앞 요청은 compareAndSet 직후라 곧 끝남)
+     */
+    void await(long userId, long version) {
+        AtomicLong stored = storedVersions.computeIfAbsent(userId, id -> new AtomicLong());
+        for (int spins = 0; stored.get() < version - 1; spins++) {
+            if (spins < SPINS)
+                Thread.onSpinWait();
+            else
+                LockSupport.parkNanos(1_000);
+        }
+    }
+
+    /**
+     * 내역 저장이 끝나면(실패해도) 반드시 호출해야 다음 버전이 기다리지 않음
+     */
+    void done(long userId, long version) {
+        storedVersions.get(userId).set(version);
+    }
+}
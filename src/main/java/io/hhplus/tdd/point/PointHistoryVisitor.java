@@ -0,0 +1,10 @@
+package io.hhplus.tdd.point;
+
+/**
+ * 내역을 PointHistory 객체로 만들지 않고 필드 값 그대로 받음
+ */
+@FunctionalInterface
+public interface PointHistoryVisitor {
+
+    void visit(long id, long amount, TransactionType type, long updateMillis);
+}
@@ -0,0 +1,99 @@
+package io.hhplus.tdd.point;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 포인트 서비스 구간별 지표 (/actuator/prometheus)
+ * - point.lock.wait      : userId Lock 을 얻기까지 기다린 시간 (operation)
+ * - point.table.latency  : Table 호출 시간 (table, method, operation)
+ * - point.rejections     : 정책 위반으로 거절된 요청 수 (reason)
+ * - point.write.compensations : 잔고/내역 동시 저장 중 한쪽이 실패해서 다른 쪽을 되돌린 수 (write)
+ */
+class PointMetrics {
+
+    static final String CHARGE = "charge";
+    static final String USE = "use";
+    static final String SELECT_BY_ID = "selectById";
+    static final String SELECT_HISTORY_BY_ID = "selectHistoryById";
+    static final String GROUP_COMMIT = "groupCommit";
+    static final String OUTBOX = "outbox";
+
+    static final String USER_POINT_TABLE = "user_point";
+    static final String USER_POINT_STORE = "user_point_store";
+    static final String POINT_HISTORY_TABLE = "point_history";
+    static final String POINT_HISTORY_STORE = "point_history_store";
+
+    static final String MAX_CHARGE = "max_charge";
+    static final String MAX_POINT = "max_point";
+    static final String INSUFFICIENT_BALANCE = "insufficient_balance";
+
+    static final String BALANCE = "balance";
+    static final String HISTORY = "history";
+
+    private final MeterRegistry registry;
+
+    // 같은 이름/태그 조합은 한 번만 등록해서 재사용 (태그 값을 그대로 키로 써서 호출마다 문자열을 만들지 않음)
+    private final ConcurrentHashMap<String, Timer> lockWaits = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<TableCall, Timer> tableLatencies = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Counter> compensations = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Counter> rejections = new ConcurrentHashMap<>();
+
+    PointMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    MeterRegistry registry() {
+        return registry;
+    }
+
+    void lockWait(String operation, long nanos) {
+        lockWaits.computeIfAbsent(operation, key -> Timer.builder("point.lock.wait")
+                        .description("userId Lock 대기 시간")
+                        .tag("operation", operation)
+                        .publishPercentileHistogram()
+                        .register(registry))
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    <T> T table(String table, String method, String operation, Supplier<T> call) {
+        Timer timer = tableLatencies.computeIfAbsent(new TableCall(table, method, operation), key -> Timer.builder("point.table.latency")
+                .description("Table 호출 시간")
+                .tag("table", table)
+                .tag("method", method)
+                .tag("operation", operation)
+                .publishPercentileHistogram()
+                .register(registry));
+
+        long start = System.nanoTime();
+        try {
+            return call.get();
+        } finally {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    void compensated(String write) {
+        compensations.computeIfAbsent(write, key -> Counter.builder("point.write.compensations")
+                        .description("동시 저장 중 한쪽이 실패해서 되돌린 저장 수")
+                        .tag("write", write)
+                        .register(registry))
+                .increment();
+    }
+
+    void rejected(String reason) {
+        rejections.computeIfAbsent(reason, key -> Counter.builder("point.rejections")
+                        .description("정책 위반으로 거절된 충전/사용 요청 수")
+                        .tag("reason", reason)
+                        .register(registry))
+                .increment();
+    }
+
+    private record TableCall(String table, String method, String operation) {
+    }
+}
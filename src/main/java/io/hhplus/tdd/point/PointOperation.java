@@ -0,0 +1,11 @@
+package io.hhplus.tdd.point;
+
+/**
+ * 일괄 충전/사용 요청 1건
+ */
+public record PointOperation(
+        long userId,
+        TransactionType type,
+        long amount
+) {
+}
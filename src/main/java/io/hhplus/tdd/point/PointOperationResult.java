@@ -0,0 +1,23 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.ErrorResponse;
+
+/**
+ * 일괄 충전/사용 요청 1건의 결과 (성공하면 userPoint, 실패하면 error)
+ */
+public record PointOperationResult(
+        long userId,
+        TransactionType type,
+        long amount,
+        UserPoint userPoint,
+        ErrorResponse error
+) {
+
+    public static PointOperationResult success(PointOperation operation, UserPoint userPoint) {
+        return new PointOperationResult(operation.userId(), operation.type(), operation.amount(), userPoint, null);
+    }
+
+    public static PointOperationResult failure(PointOperation operation, ErrorResponse error) {
+        return new PointOperationResult(operation.userId(), operation.type(), operation.amount(), null, error);
+    }
+}
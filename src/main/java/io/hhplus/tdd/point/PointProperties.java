@@ -0,0 +1,681 @@
+package io.hhplus.tdd.point;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * 포인트 서비스 동작 설정 (application.yml 의 point.*)
+ */
+@ConfigurationProperties(prefix = "point")
+public class PointProperties {
+
+    private GroupCommit groupCommit = new GroupCommit();
+    private Cache cache = new Cache();
+    private Lock lock = new Lock();
+    private History history = new History();
+    private Bulk bulk = new Bulk();
+    private BalanceJournal balanceJournal = new BalanceJournal();
+    private BalanceStore balanceStore = new BalanceStore();
+    private Idempotency idempotency = new Idempotency();
+    private Async async = new Async();
+    private Shard shard = new Shard();
+    private Optimistic optimistic = new Optimistic();
+    private Admission admission = new Admission();
+    private ReadCoalescing readCoalescing = new ReadCoalescing();
+    private ParallelWrite parallelWrite = new ParallelWrite();
+
+    public GroupCommit getGroupCommit() {
+        return groupCommit;
+    }
+
+    public void setGroupCommit(GroupCommit groupCommit) {
+        this.groupCommit = groupCommit;
+    }
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public void setCache(Cache cache) {
+        this.cache = cache;
+    }
+
+    public Lock getLock() {
+        return lock;
+    }
+
+    public void setLock(Lock lock) {
+        this.lock = lock;
+    }
+
+    public History getHistory() {
+        return history;
+    }
+
+    public void setHistory(History history) {
+        this.history = history;
+    }
+
+    public Bulk getBulk() {
+        return bulk;
+    }
+
+    public void setBulk(Bulk bulk) {
+        this.bulk = bulk;
+    }
+
+    public BalanceJournal getBalanceJournal() {
+        return balanceJournal;
+    }
+
+    public void setBalanceJournal(BalanceJournal balanceJournal) {
+        this.balanceJournal = balanceJournal;
+    }
+
+    public BalanceStore getBalanceStore() {
+        return balanceStore;
+    }
+
+    public void setBalanceStore(BalanceStore balanceStore) {
+        this.balanceStore = balanceStore;
+    }
+
+    public Idempotency getIdempotency() {
+        return idempotency;
+    }
+
+    public void setIdempotency(Idempotency idempotency) {
+        this.idempotency = idempotency;
+    }
+
+    public Async getAsync() {
+        return async;
+    }
+
+    public void setAsync(Async async) {
+        this.async = async;
+    }
+
+    public Shard getShard() {
+        return shard;
+    }
+
+    public void setShard(Shard shard) {
+        this.shard = shard;
+    }
+
+    public Optimistic getOptimistic() {
+        return optimistic;
+    }
+
+    public void setOptimistic(Optimistic optimistic) {
+        this.optimistic = optimistic;
+    }
+
+    public Admission getAdmission() {
+        return admission;
+    }
+
+    public void setAdmission(Admission admission) {
+        this.admission = admission;
+    }
+
+    public ReadCoalescing getReadCoalescing() {
+        return readCoalescing;
+    }
+
+    public void setReadCoalescing(ReadCoalescing readCoalescing) {
+        this.readCoalescing = readCoalescing;
+    }
+
+    public ParallelWrite getParallelWrite() {
+        return parallelWrite;
+    }
+
+    public void setParallelWrite(ParallelWrite parallelWrite) {
+        this.parallelWrite = parallelWrite;
+    }
+
+    /**
+     * 같은 유저에게 몰린 충전/사용 요청을 한 번의 조회/저장으로 묶어서 처리
+     */
+    public static class GroupCommit {
+
+        private boolean enabled = false;
+
+        // 한 번에 묶어서 처리할 최대 요청 수 (1 이상, 0 이하면 배치가 비어서 대기열을 비우지 못함)
+        private int maxBatchSize = 256;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMaxBatchSize() {
+            return maxBatchSize;
+        }
+
+        public void setMaxBatchSize(int maxBatchSize) {
+            if (maxBatchSize < 1)
+                throw new IllegalArgumentException("그룹 커밋 최대 배치 크기는 1 이상이어야 합니다. (" + maxBatchSize + ")");
+            this.maxBatchSize = maxBatchSize;
+        }
+    }
+
+    /**
+     * 잔고(UserPoint) 캐시
+     */
+    public static class Cache {
+
+        private boolean enabled = true;
+
+        // 캐시에 보관할 최대 유저 수
+        private int maxSize = 10_000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(int maxSize) {
+            this.maxSize = maxSize;
+        }
+    }
+
+    /**
+     * userId 별 Lock
+     */
+    public static class Lock {
+
+        // Lock 대기 제한 시간 (넘으면 LockTimeoutException)
+        private Duration timeout = Duration.ofSeconds(30);
+
+        // true 면 먼저 기다린 요청부터 Lock 을 얻음
+        private boolean fair = false;
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+
+        public boolean isFair() {
+            return fair;
+        }
+
+        public void setFair(boolean fair) {
+            this.fair = fair;
+        }
+    }
+
+    /**
+     * 포인트 내역 저장
+     */
+    public static class History {
+
+        // true 면 내역은 대기열(outbox)에 넣고 바로 반환, 백그라운드에서 저장
+        private boolean async = false;
+
+        // 저장 대기 중인 내역 최대 건수 (가득 차면 충전/사용 요청이 자리가 날 때까지 기다림)
+        private int outboxCapacity = 10_000;
+
+        // true 면 내역을 PointHistoryTable 대신 컬럼형 메모리 저장소에 저장 (journal 을 켜면 journal 우선)
+        private boolean columnar = false;
+
+        // true 면 전체 유저 내역을 시각 순으로도 인덱싱 (정산용 기간 조회)
+        // 내역을 지우지 않고 모두 힙에 들고 있으므로 정산 조회가 필요할 때만 사용 (내역 저널을 쓰면 시작할 때 저널의 내역으로 채움)
+        private boolean timeline = false;
+
+        private Journal journal = new Journal();
+
+        public boolean isAsync() {
+            return async;
+        }
+
+        public void setAsync(boolean async) {
+            this.async = async;
+        }
+
+        public int getOutboxCapacity() {
+            return outboxCapacity;
+        }
+
+        public void setOutboxCapacity(int outboxCapacity) {
+            this.outboxCapacity = outboxCapacity;
+        }
+
+        public boolean isColumnar() {
+            return columnar;
+        }
+
+        public void setColumnar(boolean columnar) {
+            this.columnar = columnar;
+        }
+
+        public boolean isTimeline() {
+            return timeline;
+        }
+
+        public void setTimeline(boolean timeline) {
+            this.timeline = timeline;
+        }
+
+        public Journal getJournal() {
+            return journal;
+        }
+
+        public void setJournal(Journal journal) {
+            this.journal = journal;
+        }
+    }
+
+    /**
+     * 포인트 내역을 PointHistoryTable 대신 메모리 매핑 파일(저널)에 저장
+     * - 켜면 비동기 저장(history.async)은 사용하지 않음 (파일 매핑 영역에 쓰는 비용이라 기다릴 필요가 없음)
+     */
+    public static class Journal {
+
+        private boolean enabled = false;
+
+        // 세그먼트 파일을 두는 디렉토리
+        private String directory = "data/point-history";
+
+        // 세그먼트 파일 1개 크기 (가득 차면 다음 파일로 넘어감)
+        private DataSize segmentSize = DataSize.ofMegabytes(64);
+
+        // true 면 내역을 쓸 때마다 디스크에 반영 (느리지만 OS 장애에도 유실 없음)
+        private boolean forceOnAppend = false;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+
+        public DataSize getSegmentSize() {
+            return segmentSize;
+        }
+
+        public void setSegmentSize(DataSize segmentSize) {
+            this.segmentSize = segmentSize;
+        }
+
+        public boolean isForceOnAppend() {
+            return forceOnAppend;
+        }
+
+        public void setForceOnAppend(boolean forceOnAppend) {
+            this.forceOnAppend = forceOnAppend;
+        }
+    }
+
+    /**
+     * 일괄 충전/사용
+     */
+    public static class Bulk {
+
+        // 한 번에 받을 수 있는 최대 요청 수
+        private int maxSize = 10_000;
+
+        // 서로 다른 유저의 요청을 동시에 처리할 스레드 수
+        private int parallelism = 32;
+
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(int maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+        }
+    }
+
+    /**
+     * 잔고를 WAL + 스냅샷 파일로도 남겨서 재시작 후에도 이어서 사용
+     */
+    public static class BalanceJournal {
+
+        private boolean enabled = false;
+
+        // WAL, 스냅샷 파일을 두는 디렉토리
+        private String directory = "data/user-point";
+
+        // 스냅샷 주기 (길수록 재시작 시 재적용할 WAL 이 많아짐)
+        private Duration snapshotInterval = Duration.ofMinutes(1);
+
+        // true 면 잔고를 저장할 때마다 디스크에 반영 (느리지만 OS 장애에도 유실 없음)
+        private boolean forceOnAppend = false;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+
+        public Duration getSnapshotInterval() {
+            return snapshotInterval;
+        }
+
+        public void setSnapshotInterval(Duration snapshotInterval) {
+            this.snapshotInterval = snapshotInterval;
+        }
+
+        public boolean isForceOnAppend() {
+            return forceOnAppend;
+        }
+
+        public void setForceOnAppend(boolean forceOnAppend) {
+            this.forceOnAppend = forceOnAppend;
+        }
+    }
+
+    /**
+     * 잔고를 UserPointTable 대신 primitive 배열 기반 저장소에 저장
+     * - 켜면 잔고 캐시(cache)는 사용하지 않음 (저장소 자체가 메모리 조회라 캐시할 필요가 없음)
+     */
+    public static class BalanceStore {
+
+        private boolean enabled = false;
+
+        // 처음부터 담아둘 수 있는 유저 수 (넘으면 2배씩 늘림)
+        private int expectedSize = 100_000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getExpectedSize() {
+            return expectedSize;
+        }
+
+        public void setExpectedSize(int expectedSize) {
+            this.expectedSize = expectedSize;
+        }
+    }
+
+    /**
+     * 멱등키(Idempotency-Key)별 충전/사용 결과 보관
+     */
+    public static class Idempotency {
+
+        // 보관할 최대 결과 수 (0 이면 멱등키를 무시)
+        private int maxSize = 100_000;
+
+        // 결과 보관 시간 (클라이언트 재시도가 끝날 만큼)
+        private Duration ttl = Duration.ofMinutes(10);
+
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(int maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+    }
+
+    /**
+     * 비동기 API (/async/point/**)
+     */
+    public static class Async {
+
+        // 요청을 실제로 처리할 스레드 수 (차례를 기다리는 요청은 스레드를 쓰지 않음)
+        // 처리 스레드는 Table 조회/저장, Lock 대기 동안 막혀 있으므로 CPU 코어 수가 아니라 동시에 처리할 요청 수 기준으로 잡음
+        private int parallelism = 64;
+
+        // 유저 1명당 처리 중이거나 차례를 기다릴 수 있는 비동기 요청 수
+        private int maxPendingPerUser = 32;
+
+        // 전체에서 처리 중이거나 차례를 기다릴 수 있는 비동기 요청 수
+        // 기다리는 요청은 스레드 없이 CompletableFuture 로만 남으므로 동기 API 의 admission.max-in-flight 와 따로, 훨씬 크게 잡음
+        private int maxPending = 50_000;
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+        }
+
+        public int getMaxPendingPerUser() {
+            return maxPendingPerUser;
+        }
+
+        public void setMaxPendingPerUser(int maxPendingPerUser) {
+            this.maxPendingPerUser = maxPendingPerUser;
+        }
+
+        public int getMaxPending() {
+            return maxPending;
+        }
+
+        public void setMaxPending(int maxPending) {
+            this.maxPending = maxPending;
+        }
+    }
+
+    /**
+     * userId Lock 대신 userId 별 단일 스레드 샤드에서 처리
+     * - 대기 제한 시간은 lock.timeout 을 그대로 사용
+     */
+    public static class Shard {
+
+        private boolean enabled = false;
+
+        // 샤드(스레드) 수 (0 이면 CPU 코어 수)
+        private int count = 0;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public void setCount(int count) {
+            this.count = count;
+        }
+    }
+
+    /**
+     * 충전/사용을 Lock 없이 버전 비교(compareAndSet)로 저장
+     * - balance-store 와 내역 저장소(history.columnar 또는 history.journal)를 켠 경우에만 동작 (balance-journal 과는 함께 쓸 수 없음)
+     */
+    public static class Optimistic {
+
+        private boolean enabled = false;
+
+        // 충돌 시 다시 시도하는 횟수 (넘으면 Lock 으로 처리)
+        private int maxRetries = 3;
+
+        // 첫 재시도 전 최대 대기 시간 (재시도마다 2배, 그 안에서 무작위)
+        private Duration backoff = Duration.ofMillis(1);
+
+        // 재시도를 다 쓴 유저는 이 시간 동안 바로 Lock 으로 처리
+        private Duration fallbackDuration = Duration.ofSeconds(1);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMaxRetries() {
+            return maxRetries;
+        }
+
+        public void setMaxRetries(int maxRetries) {
+            this.maxRetries = maxRetries;
+        }
+
+        public Duration getBackoff() {
+            return backoff;
+        }
+
+        public void setBackoff(Duration backoff) {
+            this.backoff = backoff;
+        }
+
+        public Duration getFallbackDuration() {
+            return fallbackDuration;
+        }
+
+        public void setFallbackDuration(Duration fallbackDuration) {
+            this.fallbackDuration = fallbackDuration;
+        }
+    }
+
+    /**
+     * userId Lock 앞에서 요청 수 제한 (넘으면 바로 429)
+     */
+    public static class Admission {
+
+        private boolean enabled = true;
+
+        // 유저 1명당 Lock 을 잡고 있거나 기다릴 수 있는 요청 수
+        private int maxPendingPerUser = 32;
+
+        // 전체에서 Lock 을 잡고 있거나 기다릴 수 있는 동기 API 요청 수 (Tomcat 스레드 수보다 작게, 비동기 API 는 async.max-pending)
+        private int maxInFlight = 150;
+
+        // 거절할 때 Retry-After 로 알려줄 시간
+        private Duration retryAfter = Duration.ofSeconds(1);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMaxPendingPerUser() {
+            return maxPendingPerUser;
+        }
+
+        public void setMaxPendingPerUser(int maxPendingPerUser) {
+            this.maxPendingPerUser = maxPendingPerUser;
+        }
+
+        public int getMaxInFlight() {
+            return maxInFlight;
+        }
+
+        public void setMaxInFlight(int maxInFlight) {
+            this.maxInFlight = maxInFlight;
+        }
+
+        public Duration getRetryAfter() {
+            return retryAfter;
+        }
+
+        public void setRetryAfter(Duration retryAfter) {
+            this.retryAfter = retryAfter;
+        }
+    }
+
+    /**
+     * 같은 유저의 잔고 조회가 동시에 들어오면 Table 조회 1번으로 합침
+     * - 캐시에 없는 경우에만 (캐시에 있으면 합치지 않고 바로 반환)
+     */
+    public static class ReadCoalescing {
+
+        private boolean enabled = true;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+    }
+
+    /**
+     * 충전/사용 시 잔고 저장과 내역 저장을 동시에 (Lock 을 잡는 시간 = 두 Table 호출의 합 -> 둘 중 느린 쪽)
+     * - 내역을 PointHistoryTable 에 바로 저장하는 경우에만 동작 (history.async, 내역 저장소를 쓰면 무시)
+     */
+    public static class ParallelWrite {
+
+        private boolean enabled = false;
+
+        // 내역 저장을 맡는 스레드 수
+        private int parallelism = 32;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+        }
+    }
+}
@@ -1,73 +1,893 @@
 package io.hhplus.tdd.point;
 
+import io.hhplus.tdd.ErrorResponse;
+import io.hhplus.tdd.database.ColumnarPointHistoryStore;
+import io.hhplus.tdd.database.MappedPointHistoryJournal;
 import io.hhplus.tdd.database.PointHistoryTable;
+import io.hhplus.tdd.database.PrimitiveUserPointStore;
+import io.hhplus.tdd.database.UserPointJournal;
 import io.hhplus.tdd.database.UserPointTable;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 @Service
-@RequiredArgsConstructor
 public class PointService {
 
+    private static final Logger log = LoggerFactory.getLogger(PointService.class);
+
     private final UserPointTable userPointTable;
     private final PointHistoryTable pointHistoryTable;
+    private final PointProperties properties;
+    private final PointMetrics pointMetrics;
+    private final UserPointStore userPointStore;            // 잔고를 Table 대신 별도 저장소에 저장하는 경우에만 사용
+    private final UserPointCache userPointCache;
+    private final SingleFlight<UserPoint> pointReads;       // 잔고 조회 합치기를 켠 경우에만 사용
+    private final PointHistoryIndex pointHistoryIndex = new PointHistoryIndex();
+    private final PointSummaries pointSummaries = new PointSummaries();
+    private final PointVersions pointVersions = new PointVersions();
+    private final PointHistoryTimeline pointHistoryTimeline;    // 전체 기간 조회를 켠 경우에만 사용
+    private final UserLockManager userLockManager;
+    private final PointShards pointShards;                  // Lock 대신 샤드에서 처리하는 경우에만 사용
+    private final IdempotencyCache idempotencyCache;
+    private final PointHistoryStore pointHistoryStore;      // 내역을 Table 대신 별도 저장소에 저장하는 경우에만 사용
+    private final PointHistoryOutbox pointHistoryOutbox;    // 내역 비동기 저장을 켠 경우에만 사용
+    private final UserPointJournal userPointJournal;        // 잔고 WAL/스냅샷을 켠 경우에만 사용
+    private final OptimisticContention optimisticContention;    // 낙관적 저장을 켠 경우에만 사용
+    private final PointHistoryTurns pointHistoryTurns;          // 낙관적 저장을 켠 경우에만 사용
+    private final PointAdmission pointAdmission;            // 요청 수 제한을 켠 경우에만 사용
+    private final PointAdmission asyncAdmission;            // 비동기 API 요청 수 제한 (Tomcat 스레드를 잡지 않으므로 pointAdmission 과 따로 셈)
+    private final ExecutorService bulkExecutor;
+    private final ExecutorService asyncExecutor;
+    private final ExecutorService historyWriteExecutor;     // 잔고/내역 동시 저장을 켠 경우에만 사용
+    private final UserTaskChain userTaskChain;
 
     private static final int MAX_CHARGE = 2_000_000;    // 1회 최대 충전 가능 포인트
     private static final int MAX_POINT = 2_000_000;     // 최대 보유 가능 포인트
+    private static final int MAX_HISTORY_PAGE_SIZE = 1_000;     // 내역 1페이지 최대 건수
+
+    // 그룹 커밋: userId 별로 Lock 을 기다리는 충전/사용 요청 대기열
+    private final ConcurrentHashMap<Long, Queue<PointCommand>> pendingCommands = new ConcurrentHashMap<>();
+
+    public PointService(UserPointTable userPointTable, PointHistoryTable pointHistoryTable, PointProperties properties, MeterRegistry meterRegistry) {
+        this.userPointTable = userPointTable;
+        this.pointHistoryTable = pointHistoryTable;
+        this.properties = properties;
+        this.pointMetrics = new PointMetrics(meterRegistry);
+        this.userPointStore = properties.getBalanceStore().isEnabled() ? new PrimitiveUserPointStore(properties.getBalanceStore().getExpectedSize()) : null;
+        this.userPointCache = new UserPointCache(isCacheEnabled() ? properties.getCache().getMaxSize() : 0);
+        this.pointReads = properties.getReadCoalescing().isEnabled() ? new SingleFlight<>() : null;
+        this.userLockManager = new UserLockManager(properties.getLock().getTimeout().toMillis(), properties.getLock().isFair());
+        this.pointShards = createPointShards(properties);
+        this.pointAdmission = createPointAdmission(properties.getAdmission());
+        this.idempotencyCache = new IdempotencyCache(properties.getIdempotency().getMaxSize(), properties.getIdempotency().getTtl().toNanos());
+        this.pointHistoryTimeline = properties.getHistory().isTimeline() ? new PointHistoryTimeline() : null;
+        this.pointHistoryStore = createPointHistoryStore(properties.getHistory());
+        // 재시작 전에 저장된 내역으로 유저별 요약, 정산 조회 인덱스를 다시 채움 (Table 은 항상 비어있는 상태로 시작)
+        if (pointHistoryStore != null)
+            pointHistoryStore.forEachStored(this::recoverHistory);
+        this.pointHistoryOutbox = pointHistoryStore == null && properties.getHistory().isAsync()
+                ? new PointHistoryOutbox(pointHistoryTable, pointHistoryIndex, pointHistoryTimeline, pointVersions, pointMetrics,
+                        properties.getHistory().getOutboxCapacity())
+                : null;
+        this.userPointJournal = createUserPointJournal(properties.getBalanceJournal());
+        this.optimisticContention = createOptimisticContention(properties.getOptimistic());
+        this.pointHistoryTurns = optimisticContention != null ? new PointHistoryTurns() : null;
+        this.bulkExecutor = Executors.newFixedThreadPool(properties.getBulk().getParallelism(), daemonThreadFactory("point-bulk-"));
+        this.asyncExecutor = Executors.newFixedThreadPool(properties.getAsync().getParallelism(), daemonThreadFactory("point-async-"));
+        this.asyncAdmission = new PointAdmission(properties.getAsync().getMaxPendingPerUser(), properties.getAsync().getMaxPending(),
+                Math.max(1, properties.getAdmission().getRetryAfter().toSeconds()));
+        this.userTaskChain = new UserTaskChain(asyncExecutor);
+        this.historyWriteExecutor = properties.getParallelWrite().isEnabled() && pointHistoryStore == null && pointHistoryOutbox == null
+                ? Executors.newFixedThreadPool(properties.getParallelWrite().getParallelism(), daemonThreadFactory("point-history-write-"))
+                : null;
+        bindMetrics(meterRegistry);
+    }
+
+    private void recoverHistory(PointHistory history) {
+        pointSummaries.record(history.userId(), history.type(), history.amount(), history.updateMillis());
+        if (pointHistoryTimeline != null)
+            pointHistoryTimeline.add(history);
+    }
 
-    // userId 별로 Lock객체(빈 Object 인스턴스) 만들어서 관리
-    private final ConcurrentHashMap<Long, Object> userLock = new ConcurrentHashMap<>();
+    private static PointHistoryStore createPointHistoryStore(PointProperties.History history) {
+        PointProperties.Journal journal = history.getJournal();
+        if (journal.isEnabled())
+            return new MappedPointHistoryJournal(Path.of(journal.getDirectory()), journal.getSegmentSize().toBytes(), journal.isForceOnAppend());
+        if (history.isColumnar())
+            return new ColumnarPointHistoryStore();
+        return null;
+    }
+
+    private static PointShards createPointShards(PointProperties properties) {
+        PointProperties.Shard shard = properties.getShard();
+        if (!shard.isEnabled())
+            return null;
+        int count = shard.getCount() > 0 ? shard.getCount() : Runtime.getRuntime().availableProcessors();
+        return new PointShards(count, properties.getLock().getTimeout().toMillis());
+    }
+
+    private static PointAdmission createPointAdmission(PointProperties.Admission admission) {
+        if (!admission.isEnabled())
+            return null;
+        return new PointAdmission(admission.getMaxPendingPerUser(), admission.getMaxInFlight(),
+                Math.max(1, admission.getRetryAfter().toSeconds()));
+    }
 
-    private Object getLock(long userId) {
-        return userLock.computeIfAbsent(userId, id -> new Object());
+    private static UserPointJournal createUserPointJournal(PointProperties.BalanceJournal balanceJournal) {
+        if (balanceJournal.isEnabled())
+            return new UserPointJournal(Path.of(balanceJournal.getDirectory()), balanceJournal.getSnapshotInterval(), balanceJournal.isForceOnAppend());
+        return null;
     }
 
+    // 잔고 버전이 있는 저장소, userId Lock 없이 쓸 수 있는 내역 저장소가 필요
+    // 저널은 저장 순서대로 WAL 에 쓰여야 해서 함께 쓸 수 없음
+    private OptimisticContention createOptimisticContention(PointProperties.Optimistic optimistic) {
+        if (!optimistic.isEnabled())
+            return null;
+        if (userPointStore == null || pointHistoryStore == null || userPointJournal != null) {
+            log.warn("낙관적 저장은 balance-store, 내역 저장소(columnar/journal)를 켜고 balance-journal 을 끈 경우에만 사용합니다. Lock 으로 처리합니다.");
+            return null;
+        }
+        return new OptimisticContention(optimistic.getBackoff().toNanos(), optimistic.getFallbackDuration().toNanos());
+    }
+
+    private void bindMetrics(MeterRegistry registry) {
+        Gauge.builder("point.locks.live", userLockManager, UserLockManager::liveLockCount)
+                .description("현재 잡혀있거나 대기 중인 userId Lock 수")
+                .register(registry);
+        FunctionCounter.builder("point.lock.timeouts", userLockManager, UserLockManager::timeoutCount)
+                .description("Lock 대기 시간 초과로 실패한 요청 수")
+                .register(registry);
+        FunctionCounter.builder("point.cache.requests", userPointCache, UserPointCache::hitCount)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("point.cache.requests", userPointCache, UserPointCache::missCount)
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("point.cache.evictions", userPointCache, UserPointCache::evictionCount)
+                .register(registry);
+        Gauge.builder("point.cache.size", userPointCache, UserPointCache::size)
+                .register(registry);
+        FunctionCounter.builder("point.idempotency.replays", idempotencyCache, IdempotencyCache::replayCount)
+                .description("멱등키가 같아 처음 결과를 그대로 돌려준 요청 수")
+                .register(registry);
+        Gauge.builder("point.idempotency.size", idempotencyCache, IdempotencyCache::size)
+                .register(registry);
+        if (pointShards != null)
+            Gauge.builder("point.shard.mailbox", pointShards, PointShards::mailboxSize)
+                    .description("샤드 대기열에 쌓인 작업 수")
+                    .register(registry);
+        Gauge.builder("point.async.users", userTaskChain, UserTaskChain::userCount)
+                .description("비동기 요청이 처리 중이거나 대기 중인 유저 수")
+                .register(registry);
+        Gauge.builder("point.async.pending", asyncAdmission, PointAdmission::inFlightCount)
+                .description("비동기 대기열에서 처리 중이거나 차례를 기다리는 요청 수")
+                .register(registry);
+        FunctionCounter.builder("point.async.rejections", asyncAdmission,
+                        admission -> admission.userRejectionCount() + admission.globalRejectionCount())
+                .description("비동기 대기열이 가득 차 바로 거절한 요청 수")
+                .register(registry);
+        if (userPointStore != null)
+            Gauge.builder("point.balance.store.size", userPointStore, UserPointStore::size)
+                    .description("잔고 저장소에 담긴 유저 수")
+                    .register(registry);
+        if (pointReads != null)
+            FunctionCounter.builder("point.read.coalesced", pointReads, SingleFlight::joinedCount)
+                    .description("진행 중인 잔고 조회에 합쳐져 Table 을 조회하지 않은 요청 수")
+                    .register(registry);
+        if (pointAdmission != null) {
+            Gauge.builder("point.admission.in.flight", pointAdmission, PointAdmission::inFlightCount)
+                    .description("처리 중이거나 차례를 기다리는 요청 수")
+                    .register(registry);
+            Gauge.builder("point.admission.pending.users", pointAdmission, PointAdmission::pendingUserCount)
+                    .description("처리 중이거나 차례를 기다리는 요청이 있는 유저 수")
+                    .register(registry);
+            Gauge.builder("point.admission.pending.max", pointAdmission, PointAdmission::maxPendingCount)
+                    .description("요청이 가장 많이 몰린 유저의 대기 요청 수")
+                    .register(registry);
+            FunctionCounter.builder("point.admission.rejections", pointAdmission, PointAdmission::userRejectionCount)
+                    .description("요청 수 한도를 넘어 바로 거절한 요청 수")
+                    .tag("scope", "user")
+                    .register(registry);
+            FunctionCounter.builder("point.admission.rejections", pointAdmission, PointAdmission::globalRejectionCount)
+                    .description("요청 수 한도를 넘어 바로 거절한 요청 수")
+                    .tag("scope", "global")
+                    .register(registry);
+        }
+        if (optimisticContention != null) {
+            FunctionCounter.builder("point.optimistic.conflicts", optimisticContention, OptimisticContention::conflictCount)
+                    .description("버전 충돌로 다시 시도한 횟수")
+                    .register(registry);
+            FunctionCounter.builder("point.optimistic.fallbacks", optimisticContention, OptimisticContention::fallbackCount)
+                    .description("재시도를 다 써서 Lock 으로 처리한 요청 수")
+                    .register(registry);
+            Gauge.builder("point.optimistic.locked.users", optimisticContention, OptimisticContention::lockedUserCount)
+                    .description("충돌이 계속돼 Lock 으로 처리 중인 유저 수")
+                    .register(registry);
+        }
+        if (pointHistoryOutbox != null)
+            Gauge.builder("point.history.outbox.pending", pointHistoryOutbox, PointHistoryOutbox::pendingCount)
+                    .description("저장 대기 중인 포인트 내역 수")
+                    .register(registry);
+    }
+
+    private boolean isCacheEnabled() {
+        return properties.getCache().isEnabled() && userPointStore == null;
+    }
+
+    @PreDestroy
+    public void close() {
+        bulkExecutor.shutdown();
+        asyncExecutor.shutdown();
+        if (historyWriteExecutor != null)
+            historyWriteExecutor.shutdown();
+        if (pointShards != null)
+            pointShards.close();
+        if (pointHistoryOutbox != null)
+            pointHistoryOutbox.close();
+        if (pointHistoryStore != null)
+            pointHistoryStore.close();
+        if (userPointJournal != null)
+            userPointJournal.close();
+    }
+
+    /**
+     * 캐시에 있으면 바로 반환
+     * 없으면 같은 유저의 조회가 진행 중일 때 그 결과를 같이 받음 (그 유저의 저장이 끝난 뒤라면 새로 조회)
+     */
     public UserPoint selectById(long id) {
-        return userPointTable.selectById(id);
+        if (isCacheEnabled()) {
+            UserPoint cached = userPointCache.get(id);
+            if (cached != null)
+                return cached;
+        }
+        if (pointReads == null)
+            return loadPoint(id);
+        return pointReads.execute(id, () -> loadPoint(id));
+    }
+
+    private UserPoint loadPoint(long id) {
+        if (!isCacheEnabled())
+            return readPoint(id, PointMetrics.SELECT_BY_ID);
+
+        // 캐시 적재는 쓰기와 같은 Lock 안에서 (Lock 밖에서 넣으면 더 최신 값을 덮어쓸 수 있음)
+        return admit(id, () -> withLock(id, PointMetrics.SELECT_BY_ID, () -> currentPoint(id, PointMetrics.SELECT_BY_ID)));
     }
 
     public List<PointHistory> selectHistoryById(long userId) {
-        return pointHistoryTable.selectAllByUserId(userId);
+        if (pointHistoryStore != null)
+            return pointMetrics.table(PointMetrics.POINT_HISTORY_STORE, "selectAllByUserId", PointMetrics.SELECT_HISTORY_BY_ID,
+                    () -> pointHistoryStore.selectAllByUserId(userId));
+        if (pointHistoryOutbox == null)
+            return pointHistoryIndex.get(userId);
+
+        // 아직 저장 전인 내역도 같이 보여줌
+        return pointHistoryOutbox.withPending(userId, () -> pointHistoryIndex.get(userId));
+    }
+
+    /**
+     * selectHistoryById 와 같은 내역을 visitor 에 순서대로 넘김
+     * - 내역 저장소를 쓰면 저장소에서 바로 넘김 (컬럼 저장소는 PointHistory 를 만들지 않음)
+     */
+    public void writeHistoryById(long userId, PointHistoryVisitor visitor) {
+        if (pointHistoryStore != null) {
+            pointMetrics.table(PointMetrics.POINT_HISTORY_STORE, "forEach", PointMetrics.SELECT_HISTORY_BY_ID, () -> {
+                pointHistoryStore.forEach(userId, visitor);
+                return null;
+            });
+            return;
+        }
+        for (PointHistory history : selectHistoryById(userId))
+            visitor.visit(history.id(), history.amount(), history.type(), history.updateMillis());
+    }
+
+    /**
+     * updateMillis 가 from 이상, to 미만인 내역
+     * - 유저별 내역은 시각 순이기도 해서 시작 위치를 이진 탐색 (O(log n + k))
+     * - 저장이 끝난 내역만 대상 (비동기 저장 중인 내역은 제외)
+     */
+    public List<PointHistory> selectHistoryByIdBetween(long userId, long from, long to) {
+        checkRange(from, to);
+        if (pointHistoryStore != null)
+            return pointMetrics.table(PointMetrics.POINT_HISTORY_STORE, "selectRange", PointMetrics.SELECT_HISTORY_BY_ID,
+                    () -> pointHistoryStore.selectRange(userId, from, to));
+
+        return pointHistoryIndex.range(userId, from, to);
+    }
+
+    /**
+     * 전체 유저의 updateMillis 가 from 이상, to 미만인 내역을 시각 순으로 (정산용)
+     * - 해당 구간의 내역만 읽음 (내역 저널을 쓰면 재시작 전에 저장된 내역도 포함)
+     */
+    public List<PointHistory> exportHistories(long from, long to) {
+        checkRange(from, to);
+        if (pointHistoryTimeline == null)
+            throw new IllegalArgumentException("전체 내역 기간 조회를 사용하지 않도록 설정되어 있습니다.");
+        return pointHistoryTimeline.range(from, to);
+    }
+
+    private static void checkRange(long from, long to) {
+        if (from > to)
+            throw new IllegalArgumentException("조회 시작 시각이 종료 시각보다 늦습니다.");
+    }
+
+    /**
+     * 잔고나 내역이 바뀔 때마다 달라지는 값 (Table 을 조회하지 않음, ETag 용)
+     * - 조회보다 먼저 읽어야 함: 그 사이 바뀌었다면 응답이 더 최신일 뿐 버전보다 오래된 응답은 없음
+     */
+    public String versionOf(long userId) {
+        return pointVersions.get(userId);
+    }
+
+    /**
+     * 충전/사용 합계와 건수 (내역을 조회하지 않고 저장 시 누적해둔 값)
+     */
+    public PointSummary selectSummaryById(long userId) {
+        return pointSummaries.get(userId);
+    }
+
+    /**
+     * id 가 cursor 보다 큰 내역을 id 순으로 최대 limit 건 조회 (type 이 null 이면 충전/사용 모두)
+     * - 저장이 끝난 내역만 대상 (비동기 저장 중인 내역은 id 가 없어서 제외)
+     */
+    public PointHistoryPage selectHistoryPage(long userId, Long cursor, int limit, TransactionType type) {
+        if (limit < 1 || limit > MAX_HISTORY_PAGE_SIZE)
+            throw new IllegalArgumentException("한 번에 1~" + String.format("%,d", MAX_HISTORY_PAGE_SIZE) + "건까지 조회할 수 있습니다.");
+
+        if (pointHistoryStore != null)
+            return pointHistoryStore.selectPage(userId, cursor == null ? 0 : cursor, limit, type);
+
+        return pointHistoryIndex.page(userId, cursor == null ? 0 : cursor, limit, type);
+    }
+
+    /**
+     * 멱등키가 있으면 같은 키로 앞서 처리된 결과를 그대로 반환 (Lock, Table 을 거치지 않음)
+     */
+    public UserPoint charge(long userId, long amount, String idempotencyKey) {
+        if (idempotencyKey == null)
+            return charge(userId, amount);
+        return idempotencyCache.execute(new IdempotencyCache.Key(userId, idempotencyKey), TransactionType.CHARGE, amount,
+                () -> charge(userId, amount));
+    }
+
+    public UserPoint use(long userId, long amount, String idempotencyKey) {
+        if (idempotencyKey == null)
+            return use(userId, amount);
+        return idempotencyCache.execute(new IdempotencyCache.Key(userId, idempotencyKey), TransactionType.USE, amount,
+                () -> use(userId, amount));
     }
 
     public UserPoint charge(long userId, long amount) {
+        return admit(userId, () -> doCharge(userId, amount));
+    }
+
+    public UserPoint use(long userId, long amount) {
+        return admit(userId, () -> doUse(userId, amount));
+    }
+
+    // 요청 수 제한을 통과한 뒤에만 호출
+    private UserPoint doCharge(long userId, long amount) {
+        if (properties.getGroupCommit().isEnabled())
+            return groupCommit(userId, new PointCommand(TransactionType.CHARGE, amount));
+        if (optimisticContention != null)
+            return optimistic(userId, TransactionType.CHARGE, amount, PointMetrics.CHARGE);
+
         // 동시성 처리
-        synchronized (getLock(userId)) {
+        return withLock(userId, PointMetrics.CHARGE, () -> {
 
             // 1회 최대 충전 금액 체크
-            if (amount > MAX_CHARGE)
-                throw new IllegalArgumentException("1회 최대 충전 금액은 " + String.format("%,d", MAX_CHARGE) + "원입니다.");
+            checkMaxCharge(amount);
 
-            UserPoint beforeCharge = userPointTable.selectById(userId);
+            UserPoint beforeCharge = currentPoint(userId, PointMetrics.CHARGE);
 
             // 최대 보유 포인트 초과여부 체크
-            long afterChargePoint = beforeCharge.point() + amount;
-            if (afterChargePoint > MAX_POINT)
-                throw new IllegalArgumentException("포인트는 최대 " + String.format("%,d", MAX_POINT) + "원까지 보유할 수 있습니다.");
+            long afterChargePoint = chargedPoint(beforeCharge.point(), amount);
 
-            UserPoint afterCharge = userPointTable.insertOrUpdate(userId, afterChargePoint);
-            pointHistoryTable.insert(userId, amount, TransactionType.CHARGE, System.currentTimeMillis());
-
-            return afterCharge;
-        }
+            return write(userId, beforeCharge, afterChargePoint, amount, TransactionType.CHARGE, PointMetrics.CHARGE);
+        });
     }
 
-    public UserPoint use(long userId, long amount) {
+    // 요청 수 제한을 통과한 뒤에만 호출
+    private UserPoint doUse(long userId, long amount) {
+        if (properties.getGroupCommit().isEnabled())
+            return groupCommit(userId, new PointCommand(TransactionType.USE, amount));
+        if (optimisticContention != null)
+            return optimistic(userId, TransactionType.USE, amount, PointMetrics.USE);
+
         // 동시성 처리
-        synchronized (getLock(userId)) {
-            UserPoint beforeUse = userPointTable.selectById(userId);
+        return withLock(userId, PointMetrics.USE, () -> {
+            UserPoint beforeUse = currentPoint(userId, PointMetrics.USE);
 
             // 보유포인트 < 사용포인트 체크
-            if (beforeUse.point() < amount)
-                throw new IllegalArgumentException("포인트가 부족합니다.");
+            long afterUsePoint = usedPoint(beforeUse.point(), amount);
 
-            UserPoint afterUse = userPointTable.insertOrUpdate(userId, beforeUse.point() - amount);
-            pointHistoryTable.insert(userId, amount, TransactionType.USE, System.currentTimeMillis());
+            return write(userId, beforeUse, afterUsePoint, amount, TransactionType.USE, PointMetrics.USE);
+        });
+    }
+
+    /**
+     * Lock 없이 조회 -> 검증 -> compareAndSet, 그 사이 다른 저장이 있었으면 잠시 기다렸다 다시 시도
+     * 재시도를 다 쓰면 그 유저는 한동안 Lock 안에서 처리
+     */
+    private UserPoint optimistic(long userId, TransactionType type, long amount, String operation) {
+        if (!optimisticContention.shouldLock(userId)) {
+            int maxRetries = properties.getOptimistic().getMaxRetries();
+            for (int attempt = 0; ; attempt++) {
+                UserPoint committed = tryCommit(userId, type, amount, operation);
+                if (committed != null)
+                    return committed;
+                if (attempt == maxRetries)
+                    break;
+                optimisticContention.backoff(attempt);
+            }
+            optimisticContention.fallBack(userId);
+        }
+
+        // 아직 Lock 없이 시도 중인 요청과 부딪힐 수 있어서 Lock 안에서도 compareAndSet (그 요청들도 곧 Lock 으로 넘어옴)
+        // 충돌하면 Lock 을 잡은 채로 돌지 않고 잠시 멈췄다가 다시 시도
+        return withLock(userId, operation, () -> {
+            UserPoint committed;
+            while ((committed = tryCommit(userId, type, amount, operation)) == null)
+                optimisticContention.pause();
+            return committed;
+        });
+    }
+
+    // 검증에 실패하면 IllegalArgumentException, 읽은 뒤 버전이 바뀌었으면 null
+    // 내역은 compareAndSet 이 만든 버전(읽은 버전 + 1) 순서대로 저장 (잔고가 바뀐 순서 = 내역 순서)
+    private UserPoint tryCommit(long userId, TransactionType type, long amount, String operation) {
+        VersionedUserPoint current = pointMetrics.table(PointMetrics.USER_POINT_STORE, "selectVersioned", operation,
+                () -> userPointStore.selectVersioned(userId));
+        long point = apply(type, amount, current.userPoint().point());
+
+        UserPoint saved = pointMetrics.table(PointMetrics.USER_POINT_STORE, "compareAndSet", operation,
+                () -> userPointStore.compareAndSet(userId, current.version(), point));
+        if (saved == null)
+            return null;
+
+        long version = current.version() + 1;
+        pointHistoryTurns.await(userId, version);
+        try {
+            insertHistory(userId, amount, type, saved.updateMillis(), operation);
+        } finally {
+            pointHistoryTurns.done(userId, version);
+        }
+        forgetPointRead(userId);
+        return saved;
+    }
+
+    /**
+     * 비동기 조회: 캐시에 있으면 바로 완료, 아니면 같은 유저의 비동기 요청 뒤에 이어서 실행
+     */
+    public CompletableFuture<UserPoint> selectByIdAsync(long id) {
+        if (isCacheEnabled()) {
+            UserPoint cached = userPointCache.get(id);
+            if (cached != null)
+                return CompletableFuture.completedFuture(cached);
+        }
+        return submitAsync(id, () -> selectById(id));
+    }
+
+    public CompletableFuture<List<PointHistory>> selectHistoryByIdAsync(long userId) {
+        return submitAsync(userId, () -> selectHistoryById(userId));
+    }
+
+    /**
+     * 비동기 충전/사용: 같은 유저의 요청은 들어온 순서대로 처리되고, 차례를 기다리는 동안 스레드를 잡지 않음
+     * - 멱등키가 있으면 차례가 왔을 때 같은 키로 앞서 처리된 결과를 그대로 반환
+     */
+    public CompletableFuture<UserPoint> chargeAsync(long userId, long amount, String idempotencyKey) {
+        if (idempotencyKey == null)
+            return chargeAsync(userId, amount);
+        return submitAdmitted(userId, () -> idempotencyCache.execute(new IdempotencyCache.Key(userId, idempotencyKey), TransactionType.CHARGE, amount,
+                () -> doCharge(userId, amount)));
+    }
+
+    public CompletableFuture<UserPoint> useAsync(long userId, long amount, String idempotencyKey) {
+        if (idempotencyKey == null)
+            return useAsync(userId, amount);
+        return submitAdmitted(userId, () -> idempotencyCache.execute(new IdempotencyCache.Key(userId, idempotencyKey), TransactionType.USE, amount,
+                () -> doUse(userId, amount)));
+    }
+
+    public CompletableFuture<UserPoint> chargeAsync(long userId, long amount) {
+        return submitAdmitted(userId, () -> doCharge(userId, amount));
+    }
+
+    public CompletableFuture<UserPoint> useAsync(long userId, long amount) {
+        return submitAdmitted(userId, () -> doUse(userId, amount));
+    }
 
-            return afterUse;
+    // 비동기 요청 수 제한은 대기열에 넣기 전에 확인하고, 얻은 자리는 작업이 끝날 때 반환
+    // (차례를 기다리는 동안 스레드를 잡지 않으므로 동기 API 의 요청 수 제한(pointAdmission)에는 세지 않음)
+    private <T> CompletableFuture<T> submitAdmitted(long userId, Supplier<T> task) {
+        asyncAdmission.acquire(userId);
+        try {
+            return submitAsync(userId, task).whenComplete((result, error) -> asyncAdmission.release(userId));
+        } catch (RuntimeException e) {
+            asyncAdmission.release(userId);
+            throw e;
         }
     }
+
+    // 샤드를 쓰면 샤드 대기열이 곧 유저별 순서라서 바로 샤드에 넣음
+    private <T> CompletableFuture<T> submitAsync(long userId, Supplier<T> task) {
+        if (pointShards != null)
+            return pointShards.submit(userId, task);
+        return userTaskChain.submit(userId, task);
+    }
+
+    /**
+     * 여러 유저의 충전/사용을 한 번에 처리
+     * - 서로 다른 유저의 요청은 병렬로, 같은 유저의 요청은 들어온 순서대로 처리
+     * - 요청 1건이 실패해도 나머지는 계속 처리하고, 요청 순서대로 각각의 결과를 반환
+     */
+    public List<PointOperationResult> bulk(List<PointOperation> operations) {
+        if (operations.size() > properties.getBulk().getMaxSize())
+            throw new IllegalArgumentException("한 번에 최대 " + String.format("%,d", properties.getBulk().getMaxSize()) + "건까지 요청할 수 있습니다.");
+
+        Map<Long, List<Integer>> indexesByUser = new LinkedHashMap<>();
+        for (int i = 0; i < operations.size(); i++)
+            indexesByUser.computeIfAbsent(operations.get(i).userId(), id -> new ArrayList<>()).add(i);
+
+        PointOperationResult[] results = new PointOperationResult[operations.size()];
+        CompletableFuture<?>[] futures = indexesByUser.values().stream()
+                .map(indexes -> CompletableFuture.runAsync(
+                        () -> indexes.forEach(i -> results[i] = execute(operations.get(i))), bulkExecutor))
+                .toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(futures).join();
+
+        return Arrays.asList(results);
+    }
+
+    private PointOperationResult execute(PointOperation operation) {
+        try {
+            if (operation.type() == null)
+                throw new IllegalArgumentException("충전/사용 구분이 없습니다.");
+
+            UserPoint userPoint = switch (operation.type()) {
+                case CHARGE -> charge(operation.userId(), operation.amount());
+                case USE -> use(operation.userId(), operation.amount());
+            };
+            return PointOperationResult.success(operation, userPoint);
+        } catch (IllegalArgumentException e) {
+            return PointOperationResult.failure(operation, new ErrorResponse("400", e.getMessage()));
+        } catch (LockTimeoutException e) {
+            return PointOperationResult.failure(operation, new ErrorResponse("503", e.getMessage()));
+        } catch (TooManyRequestsException e) {
+            return PointOperationResult.failure(operation, new ErrorResponse("429", e.getMessage()));
+        } catch (RuntimeException e) {
+            return PointOperationResult.failure(operation, new ErrorResponse("500", "에러가 발생했습니다."));
+        }
+    }
+
+    /**
+     * 요청을 userId 대기열에 넣고, Lock 을 잡은 스레드가 그때까지 쌓인 요청을 한 번에 처리한다.
+     * 내 요청이 다른 스레드의 배치에 포함돼 이미 끝났다면 바로 결과만 받아간다.
+     * Lock 을 얻지 못하면 대기열의 내 요청을 취소하고 실패 (이미 다른 스레드의 배치에 포함됐다면 그 결과를 받음)
+     */
+    private UserPoint groupCommit(long userId, PointCommand command) {
+        Queue<PointCommand> queue = pendingCommands.computeIfAbsent(userId, id -> new ConcurrentLinkedQueue<>());
+        queue.add(command);
+
+        String operation = command.type() == TransactionType.CHARGE ? PointMetrics.CHARGE : PointMetrics.USE;
+        try {
+            withLock(userId, operation, () -> {
+                while (!command.isDone())
+                    commitBatch(userId, queue);
+
+                // 비어있는 대기열은 정리 (정리된 뒤 들어온 요청은 자기가 꺼내서 처리함)
+                if (queue.isEmpty())
+                    pendingCommands.remove(userId, queue);
+                return null;
+            });
+        } catch (RuntimeException e) {
+            if (command.cancel()) {
+                queue.remove(command);
+                throw e;
+            }
+        }
+        return command.await();
+    }
+
+    // userId Lock 을 잡은 상태에서만 호출
+    private void commitBatch(long userId, Queue<PointCommand> queue) {
+        List<PointCommand> batch = new ArrayList<>();
+        PointCommand polled;
+        while (batch.size() < properties.getGroupCommit().getMaxBatchSize() && (polled = queue.poll()) != null)
+            if (polled.claim())
+                batch.add(polled);
+        if (batch.isEmpty())
+            return;
+
+        List<PointCommand> accepted = new ArrayList<>();
+        List<Long> acceptedPoints = new ArrayList<>();
+        try {
+            // 배치 전체에서 조회는 1번
+            UserPoint before = currentPoint(userId, PointMetrics.GROUP_COMMIT);
+            long point = before.point();
+
+            // 들어온 순서대로 누적 잔고에 대해 검증, 실패한 요청만 개별로 거절
+            for (PointCommand command : batch) {
+                try {
+                    point = apply(command.type(), command.amount(), point);
+                    accepted.add(command);
+                    acceptedPoints.add(point);
+                } catch (IllegalArgumentException e) {
+                    command.fail(e);
+                }
+            }
+            if (accepted.isEmpty())
+                return;
+
+            // 배치 전체에서 저장도 1번
+            UserPoint saved = save(userId, before, point, PointMetrics.GROUP_COMMIT);
+            for (int i = 0; i < accepted.size(); i++) {
+                PointCommand command = accepted.get(i);
+                insertHistory(userId, command.amount(), command.type(), saved.updateMillis(), PointMetrics.GROUP_COMMIT);
+                command.complete(new UserPoint(userId, acceptedPoints.get(i), saved.updateMillis()));
+            }
+        } catch (RuntimeException e) {
+            // 조회/저장 실패 시 아직 결과를 못 받은 요청은 모두 실패 처리
+            batch.stream().filter(command -> !command.isDone()).forEach(command -> command.fail(e));
+        }
+    }
+
+    // 요청 수 제한을 넘으면 기다리지 않고 TooManyRequestsException
+    // 대기열, Lock 등 어떤 상태도 바꾸기 전에 확인해야 함 (거절된 요청이 나중에 처리되지 않게)
+    private <T> T admit(long userId, Supplier<T> action) {
+        if (pointAdmission == null)
+            return action.get();
+        return pointAdmission.execute(userId, action);
+    }
+
+    // userId Lock 을 얻고 action 실행 (Lock 대기 시간 기록)
+    // 샤드를 쓰면 Lock 대신 userId 샤드에서 실행 (샤드 대기열에서 기다린 시간을 기록)
+    private <T> T withLock(long userId, String operation, Supplier<T> action) {
+        long requested = System.nanoTime();
+        Supplier<T> timed = () -> {
+            pointMetrics.lockWait(operation, System.nanoTime() - requested);
+            return action.get();
+        };
+        if (pointShards != null)
+            return pointShards.execute(userId, timed);
+        return userLockManager.execute(userId, timed);
+    }
+
+    // userId Lock 안에서만 호출: 캐시에 있으면 Table 조회 생략
+    private UserPoint currentPoint(long userId, String operation) {
+        if (userPointStore != null)
+            return readPoint(userId, operation);
+
+        UserPoint cached = userPointCache.get(userId);
+        if (cached != null)
+            return cached;
+
+        UserPoint userPoint = readPoint(userId, operation);
+        userPointCache.put(userPoint);
+        return userPoint;
+    }
+
+    // 재시작 후 아직 쓰지 않은 유저는 저널에서 복구된 잔고, 그 외엔 저장소 또는 Table
+    private UserPoint readPoint(long userId, String operation) {
+        if (userPointJournal != null) {
+            UserPoint recovered = userPointJournal.recovered(userId);
+            if (recovered != null)
+                return recovered;
+        }
+        if (userPointStore != null)
+            return pointMetrics.table(PointMetrics.USER_POINT_STORE, "selectById", operation, () -> userPointStore.selectById(userId));
+        return pointMetrics.table(PointMetrics.USER_POINT_TABLE, "selectById", operation, () -> userPointTable.selectById(userId));
+    }
+
+    // userId Lock 안에서만 호출: Table 저장과 동시에 캐시, 저널 갱신 (write-through)
+    // 저널 기록에 실패하면 Table 의 잔고를 이전 값으로 되돌림 (재시작하면 사라질 잔고가 조회되지 않게)
+    private UserPoint save(long userId, UserPoint before, long point, String operation) {
+        UserPoint saved = storeBalance(userId, point, operation);
+        try {
+            appendJournal(saved);
+        } catch (RuntimeException e) {
+            restoreBalance(userId, before, operation, e);
+            throw e;
+        }
+        publish(saved);
+        return saved;
+    }
+
+    private UserPoint storeBalance(long userId, long point, String operation) {
+        return userPointStore != null
+                ? pointMetrics.table(PointMetrics.USER_POINT_STORE, "insertOrUpdate", operation, () -> userPointStore.insertOrUpdate(userId, point))
+                : pointMetrics.table(PointMetrics.USER_POINT_TABLE, "insertOrUpdate", operation, () -> userPointTable.insertOrUpdate(userId, point));
+    }
+
+    private void appendJournal(UserPoint saved) {
+        if (userPointJournal != null)
+            userPointJournal.append(saved);
+    }
+
+    // 저장된 잔고를 캐시, 조회, 버전에 반영
+    private void publish(UserPoint saved) {
+        userPointCache.put(saved);
+        forgetPointRead(saved.id());
+        pointVersions.increment(saved.id());
+    }
+
+    // 저장 전에 시작된 잔고 조회에 이후 조회가 붙지 않도록
+    private void forgetPointRead(long userId) {
+        if (pointReads != null)
+            pointReads.forget(userId);
+    }
+
+    // userId Lock 안에서만 호출: 잔고 저장 후 내역 저장 (동시 저장을 켜면 두 저장을 동시에)
+    private UserPoint write(long userId, UserPoint before, long point, long amount, TransactionType type, String operation) {
+        if (historyWriteExecutor != null)
+            return writeInParallel(userId, before, point, amount, type, operation);
+
+        UserPoint saved = save(userId, before, point, operation);
+        insertHistory(userId, amount, type, System.currentTimeMillis(), operation);
+        return saved;
+    }
+
+    /**
+     * userId Lock 안에서만 호출: 내역은 다른 스레드에서 Table 에 저장하고, 그동안 잔고를 저장한 뒤 둘 다 끝날 때까지 기다림
+     * - 잔고(캐시, 버전)와 내역(인덱스, 요약)은 두 저장이 모두 성공한 뒤에 반영 (그 전엔 Lock 을 거치는 조회에 보이지 않음)
+     * - 잔고가 Table 에 기록됐는데 내역 저장이나 저널 기록이 실패하면 잔고를 이전 값으로 되돌림
+     * - 잔고 저장이 실패하면 Table 에 들어간 내역은 인덱스에 넣지 않음 (조회되지 않음)
+     */
+    private UserPoint writeInParallel(long userId, UserPoint before, long point, long amount, TransactionType type, String operation) {
+        long historyMillis = Math.max(System.currentTimeMillis(), pointSummaries.lastUpdateMillis(userId));
+        CompletableFuture<PointHistory> historyWrite = CompletableFuture.supplyAsync(() -> pointMetrics.table(PointMetrics.POINT_HISTORY_TABLE, "insert", operation,
+                () -> pointHistoryTable.insert(userId, amount, type, historyMillis)), historyWriteExecutor);
+
+        UserPoint stored = null;    // Table 에 기록된 잔고 (이후 단계가 실패하면 되돌려야 함)
+        RuntimeException failure = null;
+        try {
+            stored = storeBalance(userId, point, operation);
+            appendJournal(stored);
+        } catch (RuntimeException e) {
+            failure = e;
+        }
+
+        PointHistory history = null;
+        try {
+            history = historyWrite.join();
+        } catch (CompletionException e) {
+            RuntimeException cause = e.getCause() instanceof RuntimeException runtime ? runtime : e;
+            if (failure == null)
+                failure = cause;
+            else
+                failure.addSuppressed(cause);
+        }
+
+        if (failure == null) {
+            userPointCache.put(stored);
+            forgetPointRead(userId);
+            indexHistory(userId, history);
+            pointSummaries.record(userId, type, amount, historyMillis);
+            pointVersions.increment(userId);
+            return stored;
+        }
+
+        if (stored != null)
+            restoreBalance(userId, before, operation, failure);
+        // Table 에 남은 내역은 인덱스에 넣지 않았으므로 조회되지 않음
+        if (history != null)
+            pointMetrics.compensated(PointMetrics.HISTORY);
+        throw failure;
+    }
+
+    // Table 에 기록된 잔고를 이전 값으로 (Lock 없이 Table 을 읽은 조회가 있었을 수 있어서 버전도 올림)
+    private void restoreBalance(long userId, UserPoint before, String operation, RuntimeException failure) {
+        try {
+            UserPoint restored = storeBalance(userId, before.point(), operation);
+            appendJournal(restored);
+            publish(restored);
+            pointMetrics.compensated(PointMetrics.BALANCE);
+        } catch (RuntimeException e) {
+            // Table 의 잔고를 알 수 없으므로 캐시를 비워서 다음 조회는 Table 에서
+            userPointCache.remove(userId);
+            forgetPointRead(userId);
+            log.error("잔고를 이전 값으로 되돌리지 못했습니다. userId={}, 이전 잔고={}", userId, before.point(), e);
+            failure.addSuppressed(e);
+        }
+    }
+
+    // userId Lock(낙관적 모드는 내역 차례) 안에서만 호출: 내역 저장 후 유저별 요약에 누적
+    private void insertHistory(long userId, long amount, TransactionType type, long updateMillis, String operation) {
+        // 시스템 시계가 뒤로 가도 유저별 내역 시각은 줄어들지 않게 (id 순서 = 시각 순서라서 기간 조회를 이진 탐색으로)
+        long historyMillis = Math.max(updateMillis, pointSummaries.lastUpdateMillis(userId));
+        storeHistory(userId, amount, type, historyMillis, operation);
+        pointSummaries.record(userId, type, amount, historyMillis);
+        pointVersions.increment(userId);
+    }
+
+    // Table 에 저장된 내역은 유저별 인덱스, 전체 시각 인덱스에도 추가 (비동기 저장은 저장이 끝날 때 추가)
+    private void storeHistory(long userId, long amount, TransactionType type, long updateMillis, String operation) {
+        if (pointHistoryOutbox != null) {
+            pointHistoryOutbox.add(userId, amount, type, updateMillis);
+            return;
+        }
+
+        PointHistory history = pointHistoryStore != null
+                ? pointMetrics.table(PointMetrics.POINT_HISTORY_STORE, "insert", operation,
+                        () -> pointHistoryStore.insert(userId, amount, type, updateMillis))
+                : pointMetrics.table(PointMetrics.POINT_HISTORY_TABLE, "insert", operation,
+                        () -> pointHistoryTable.insert(userId, amount, type, updateMillis));
+        if (pointHistoryStore == null)
+            indexHistory(userId, history);
+        else if (pointHistoryTimeline != null && history != null)
+            pointHistoryTimeline.add(history);
+    }
+
+    // Table 에 저장된 내역을 유저별 인덱스, 전체 시각 인덱스에 추가
+    private void indexHistory(long userId, PointHistory history) {
+        if (history == null)
+            return;
+        pointHistoryIndex.append(userId, history);
+        if (pointHistoryTimeline != null)
+            pointHistoryTimeline.add(history);
+    }
+
+    private long apply(TransactionType type, long amount, long point) {
+        if (type == TransactionType.CHARGE) {
+            checkMaxCharge(amount);
+            return chargedPoint(point, amount);
+        }
+        return usedPoint(point, amount);
+    }
+
+    private void checkMaxCharge(long amount) {
+        if (amount > MAX_CHARGE) {
+            pointMetrics.rejected(PointMetrics.MAX_CHARGE);
+            throw new IllegalArgumentException("1회 최대 충전 금액은 " + String.format("%,d", MAX_CHARGE) + "원입니다.");
+        }
+    }
+
+    private long chargedPoint(long point, long amount) {
+        long afterChargePoint = point + amount;
+        if (afterChargePoint > MAX_POINT) {
+            pointMetrics.rejected(PointMetrics.MAX_POINT);
+            throw new IllegalArgumentException("포인트는 최대 " + String.format("%,d", MAX_POINT) + "원까지 보유할 수 있습니다.");
+        }
+        return afterChargePoint;
+    }
+
+    private long usedPoint(long point, long amount) {
+        if (point < amount) {
+            pointMetrics.rejected(PointMetrics.INSUFFICIENT_BALANCE);
+            throw new IllegalArgumentException("포인트가 부족합니다.");
+        }
+        return point - amount;
+    }
+
+    private static ThreadFactory daemonThreadFactory(String prefix) {
+        AtomicInteger sequence = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
 }
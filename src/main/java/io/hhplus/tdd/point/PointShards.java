@@ -0,0 +1,148 @@
+package io.hhplus.tdd.point;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * userId 를 N 개의 단일 스레드 샤드에 나눠서 처리 (userId Lock 대신 사용)
+ * - 같은 유저의 작업은 항상 같은 샤드 스레드에서 들어온 순서대로 실행되므로 Lock 이 필요 없음
+ * - 요청 스레드는 샤드 대기열(mailbox)에 작업을 넣고 결과만 기다림 (Lock 경합/컨텍스트 스위칭 없음)
+ * - 샤드 스레드는 Table 호출 동안 멈추므로, 지연 없는 저장소(잔고/내역 저장소)와 함께 쓸 때 효과가 큼
+ */
+class PointShards {
+
+    private final Shard[] shards;
+    private final long timeoutMillis;
+
+    PointShards(int count, long timeoutMillis) {
+        this.shards = new Shard[count];
+        for (int i = 0; i < count; i++)
+            shards[i] = new Shard("point-shard-" + i);
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * userId 샤드에서 실행하고 결과를 기다림 (이미 그 샤드 스레드면 바로 실행)
+     * - 제한 시간 안에 차례가 오지 않으면 LockTimeoutException, 기다리는 중 중단되면 LockInterruptedException (아직 시작 전이면 실행되지 않음)
+     */
+    <T> T execute(long userId, Supplier<T> action) {
+        Shard shard = shardOf(userId);
+        if (Thread.currentThread() == shard.thread)
+            return action.get();
+
+        Task<T> task = shard.submit(action);
+        try {
+            task.result.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // 아직 시작 전이면 실행되지 않게 하고 실패 처리, 이미 시작했다면 끝날 때까지 기다림
+            if (task.cancel())
+                throw new LockTimeoutException(userId, timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (task.cancel())
+                throw new LockInterruptedException(userId, e);
+        } catch (ExecutionException ignored) {
+            // 아래 join 에서 원래 예외로 던짐
+        }
+
+        try {
+            return task.result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause)
+                throw cause;
+            throw e;
+        }
+    }
+
+    /**
+     * userId 샤드에 작업을 넣고 바로 반환
+     */
+    <T> CompletableFuture<T> submit(long userId, Supplier<T> action) {
+        return shardOf(userId).submit(action).result;
+    }
+
+    int mailboxSize() {
+        int size = 0;
+        for (Shard shard : shards)
+            size += shard.executor.getQueue().size();
+        return size;
+    }
+
+    void close() {
+        for (Shard shard : shards)
+            shard.executor.shutdown();
+    }
+
+    private Shard shardOf(long userId) {
+        return shards[Math.floorMod(mix(userId), shards.length)];
+    }
+
+    // 연속된 userId 가 한 샤드에 몰리지 않도록 비트를 섞음
+    private static int mix(long id) {
+        long h = id * 0x9e3779b97f4a7c15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static final class Shard {
+
+        private final ThreadPoolExecutor executor;
+        private volatile Thread thread;
+
+        private Shard(String name) {
+            this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), runnable -> {
+                Thread t = new Thread(runnable, name);
+                t.setDaemon(true);
+                thread = t;
+                return t;
+            });
+            executor.prestartCoreThread();
+        }
+
+        private <T> Task<T> submit(Supplier<T> action) {
+            Task<T> task = new Task<>(action);
+            executor.execute(task);
+            return task;
+        }
+    }
+
+    private static final class Task<T> implements Runnable {
+
+        private static final int QUEUED = 0;
+        private static final int RUNNING = 1;
+        private static final int CANCELLED = 2;
+
+        private final Supplier<T> action;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private final AtomicInteger state = new AtomicInteger(QUEUED);
+
+        private Task(Supplier<T> action) {
+            this.action = action;
+        }
+
+        @Override
+        public void run() {
+            // 기다리다 포기한(취소된) 작업은 건너뜀
+            if (!state.compareAndSet(QUEUED, RUNNING))
+                return;
+            try {
+                result.complete(action.get());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        }
+
+        /**
+         * @return 시작 전이라 취소했으면 true
+         */
+        private boolean cancel() {
+            return state.compareAndSet(QUEUED, CANCELLED);
+        }
+    }
+}
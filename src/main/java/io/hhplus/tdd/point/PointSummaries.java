@@ -0,0 +1,68 @@
+package io.hhplus.tdd.point;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 유저별 충전/사용 합계, 건수, 첫/마지막 시각
+ * - 내역이 저장될 때마다 O(1) 로 누적하므로 조회할 때 내역을 훑지 않음
+ * - 내역 저널을 쓰면 시작할 때 저널에 남아 있는 내역으로 다시 누적 (Table, 메모리 저장소는 비어있는 상태로 시작)
+ */
+class PointSummaries {
+
+    private final ConcurrentHashMap<Long, Aggregate> aggregates = new ConcurrentHashMap<>();
+
+    void record(long userId, TransactionType type, long amount, long updateMillis) {
+        Aggregate aggregate = aggregates.computeIfAbsent(userId, key -> new Aggregate());
+        synchronized (aggregate) {
+            aggregate.add(type, amount, updateMillis);
+        }
+    }
+
+    /**
+     * @return 마지막 내역 시각 (내역이 없으면 Long.MIN_VALUE)
+     */
+    long lastUpdateMillis(long userId) {
+        Aggregate aggregate = aggregates.get(userId);
+        if (aggregate == null)
+            return Long.MIN_VALUE;
+        synchronized (aggregate) {
+            return aggregate.lastUpdateMillis;
+        }
+    }
+
+    PointSummary get(long userId) {
+        Aggregate aggregate = aggregates.get(userId);
+        if (aggregate == null)
+            return PointSummary.empty(userId);
+        synchronized (aggregate) {
+            return aggregate.toSummary(userId);
+        }
+    }
+
+    private static final class Aggregate {
+
+        private long totalCharged;
+        private long totalUsed;
+        private long chargeCount;
+        private long useCount;
+        private long firstUpdateMillis = Long.MAX_VALUE;
+        private long lastUpdateMillis = Long.MIN_VALUE;
+
+        private void add(TransactionType type, long amount, long updateMillis) {
+            if (type == TransactionType.CHARGE) {
+                totalCharged += amount;
+                chargeCount++;
+            } else {
+                totalUsed += amount;
+                useCount++;
+            }
+            firstUpdateMillis = Math.min(firstUpdateMillis, updateMillis);
+            lastUpdateMillis = Math.max(lastUpdateMillis, updateMillis);
+        }
+
+        private PointSummary toSummary(long userId) {
+            return new PointSummary(userId, totalCharged, totalUsed, chargeCount, useCount, chargeCount + useCount,
+                    firstUpdateMillis, lastUpdateMillis);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package io.hhplus.tdd.point;
+
+/**
+ * 유저별 포인트 충전/사용 요약
+ * - firstUpdateMillis, lastUpdateMillis: 첫/마지막 내역 시각 (내역이 없으면 null)
+ */
+public record PointSummary(
+        long userId,
+        long totalCharged,
+        long totalUsed,
+        long chargeCount,
+        long useCount,
+        long count,
+        Long firstUpdateMillis,
+        Long lastUpdateMillis
+) {
+
+    public static PointSummary empty(long userId) {
+        return new PointSummary(userId, 0, 0, 0, 0, 0, null, null);
+    }
+}
@@ -0,0 +1,24 @@
+package io.hhplus.tdd.point;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 유저별 데이터 버전 (잔고나 내역이 바뀔 때마다 1씩 오름)
+ * - 조회 API 의 ETag 로 써서, 바뀐 게 없으면 Table 을 조회하지 않고 304
+ * - 데이터가 보이게 된 뒤에 올려야 함 (버전을 먼저 읽고 데이터를 읽으므로, 응답 데이터는 항상 ETag 버전 이후)
+ * - 메모리에만 있어서 재시작하면 0부터 다시 시작 -> 버전 앞에 시작 시각을 붙여 이전 실행의 버전과 겹치지 않게
+ * - 시각(Last-Modified)은 초 단위라 1초 안에 바뀐 것을 구분하지 못해서 쓰지 않음
+ */
+class PointVersions {
+
+    private final long startedMillis = System.currentTimeMillis();
+    private final ConcurrentHashMap<Long, Long> versions = new ConcurrentHashMap<>();
+
+    void increment(long userId) {
+        versions.merge(userId, 1L, Long::sum);
+    }
+
+    String get(long userId) {
+        return Long.toString(startedMillis, 36) + "-" + versions.getOrDefault(userId, 0L);
+    }
+}
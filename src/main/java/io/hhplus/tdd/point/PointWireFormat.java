@@ -0,0 +1,251 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.ErrorResponse;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 서비스 간 통신용 바이너리 포맷 (Accept: application/x-point-binary)
+ * - 정수는 zigzag varint, id/updateMillis 는 바로 앞 행과의 차이만 기록 (유저별 내역은 둘 다 오름차순이라 대부분 1~2바이트)
+ * - 필드 이름, TransactionType 문자열을 반복하지 않음 (type 은 1바이트)
+ *
+ * 내역          : 버전(1) userId { type(1), id 차이, amount, updateMillis 차이 } * 행 수, 끝(0xFF)
+ * 일괄처리 결과 : 버전(1) 건수 { userId, type(1), amount, 성공(1) -> point, updateMillis 차이 / 실패(0) -> code, message } * 건수
+ * (문자열은 UTF-8 바이트 수 + 바이트, null 이면 길이 -1)
+ * - 내역은 건수를 모르고 쓰기 시작하므로 끝 표시로 끝냄 (끝 표시 없이 끊긴 응답은 짧은 내역이 아니라 에러)
+ */
+public final class PointWireFormat {
+
+    public static final String MEDIA_TYPE_VALUE = "application/x-point-binary";
+
+    private static final int VERSION = 2;
+    private static final int NO_TYPE = 0xFF;
+    private static final int END = 0xFF;
+    private static final TransactionType[] TYPES = TransactionType.values();
+
+    private PointWireFormat() {
+    }
+
+    /**
+     * 받은 내역을 바로 출력 버퍼에 씀 (다 쓴 뒤 flush)
+     */
+    public static final class HistoryWriter implements PointHistoryVisitor {
+
+        private final Encoder encoder;
+        private long lastId;
+        private long lastUpdateMillis;
+
+        public HistoryWriter(OutputStream out, long userId) {
+            this.encoder = new Encoder(out);
+            encoder.writeByte(VERSION);
+            encoder.writeLong(userId);
+        }
+
+        @Override
+        public void visit(long id, long amount, TransactionType type, long updateMillis) {
+            encoder.writeByte(type.ordinal());
+            encoder.writeLong(id - lastId);
+            encoder.writeLong(amount);
+            encoder.writeLong(updateMillis - lastUpdateMillis);
+            lastId = id;
+            lastUpdateMillis = updateMillis;
+        }
+
+        public void write(PointHistory history) {
+            visit(history.id(), history.amount(), history.type(), history.updateMillis());
+        }
+
+        /**
+         * 끝 표시를 쓰고 내보냄 (이후에는 쓰지 않음)
+         */
+        public void finish() throws IOException {
+            encoder.writeByte(END);
+            encoder.flush();
+        }
+    }
+
+    public static void writeResults(List<PointOperationResult> results, OutputStream out) throws IOException {
+        Encoder encoder = new Encoder(out);
+        encoder.writeByte(VERSION);
+        encoder.writeLong(results.size());
+        long lastUpdateMillis = 0;
+        for (PointOperationResult result : results) {
+            encoder.writeLong(result.userId());
+            encoder.writeByte(result.type() == null ? NO_TYPE : result.type().ordinal());
+            encoder.writeLong(result.amount());
+            if (result.userPoint() != null) {
+                encoder.writeByte(1);
+                encoder.writeLong(result.userPoint().point());
+                encoder.writeLong(result.userPoint().updateMillis() - lastUpdateMillis);
+                lastUpdateMillis = result.userPoint().updateMillis();
+            } else {
+                encoder.writeByte(0);
+                encoder.writeString(result.error() == null ? null : result.error().code());
+                encoder.writeString(result.error() == null ? null : result.error().message());
+            }
+        }
+        encoder.flush();
+    }
+
+    public static List<PointHistory> readHistories(byte[] bytes) {
+        Decoder decoder = new Decoder(bytes);
+        decoder.checkVersion();
+        long userId = decoder.readLong();
+        List<PointHistory> histories = new ArrayList<>();
+        long id = 0;
+        long updateMillis = 0;
+        for (int type = decoder.readByte(); type != END; type = decoder.readByte()) {
+            id += decoder.readLong();
+            long amount = decoder.readLong();
+            updateMillis += decoder.readLong();
+            histories.add(new PointHistory(id, userId, amount, typeOf(type), updateMillis));
+        }
+        if (decoder.hasRemaining())
+            throw new IllegalArgumentException("끝 표시 뒤에 데이터가 있습니다.");
+        return histories;
+    }
+
+    public static List<PointOperationResult> readResults(byte[] bytes) {
+        Decoder decoder = new Decoder(bytes);
+        decoder.checkVersion();
+        // 건당 최소 1바이트 이상이므로 남은 바이트 수보다 많을 수 없음
+        long count = decoder.readLong();
+        if (count < 0 || count > decoder.remaining())
+            throw new IllegalArgumentException("잘못된 건수입니다. (" + count + ")");
+        List<PointOperationResult> results = new ArrayList<>((int) count);
+        long updateMillis = 0;
+        for (int i = 0; i < count; i++) {
+            long userId = decoder.readLong();
+            int type = decoder.readByte();
+            PointOperation operation = new PointOperation(userId, type == NO_TYPE ? null : typeOf(type), decoder.readLong());
+            if (decoder.readByte() == 1) {
+                long point = decoder.readLong();
+                updateMillis += decoder.readLong();
+                results.add(PointOperationResult.success(operation, new UserPoint(userId, point, updateMillis)));
+            } else {
+                results.add(PointOperationResult.failure(operation, new ErrorResponse(decoder.readString(), decoder.readString())));
+            }
+        }
+        return results;
+    }
+
+    private static TransactionType typeOf(int ordinal) {
+        if (ordinal >= TYPES.length)
+            throw new IllegalArgumentException("알 수 없는 거래 종류입니다. (" + ordinal + ")");
+        return TYPES[ordinal];
+    }
+
+    /**
+     * 출력 스트림 앞의 고정 크기 버퍼 (가득 차면 내보냄)
+     */
+    private static final class Encoder {
+
+        private final OutputStream out;
+        private final byte[] buffer = new byte[8192];
+        private int position;
+
+        private Encoder(OutputStream out) {
+            this.out = out;
+        }
+
+        private void writeByte(int value) {
+            if (position == buffer.length)
+                drain();
+            buffer[position++] = (byte) value;
+        }
+
+        private void writeLong(long value) {
+            long zigzag = (value << 1) ^ (value >> 63);
+            while ((zigzag & ~0x7FL) != 0) {
+                writeByte((int) ((zigzag & 0x7F) | 0x80));
+                zigzag >>>= 7;
+            }
+            writeByte((int) zigzag);
+        }
+
+        private void writeString(String value) {
+            if (value == null) {
+                writeLong(-1);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeLong(bytes.length);
+            for (byte b : bytes)
+                writeByte(b);
+        }
+
+        private void flush() throws IOException {
+            out.write(buffer, 0, position);
+            position = 0;
+            out.flush();
+        }
+
+        // 행 중간에 불려서 checked 예외를 던질 수 없음
+        private void drain() {
+            try {
+                out.write(buffer, 0, position);
+            } catch (IOException e) {
+                throw new UncheckedIOException("바이너리 응답을 쓰지 못했습니다.", e);
+            }
+            position = 0;
+        }
+    }
+
+    private static final class Decoder {
+
+        private final byte[] bytes;
+        private int position;
+
+        private Decoder(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        private void checkVersion() {
+            if (!hasRemaining() || readByte() != VERSION)
+                throw new IllegalArgumentException("지원하지 않는 포맷입니다.");
+        }
+
+        private boolean hasRemaining() {
+            return position < bytes.length;
+        }
+
+        private int remaining() {
+            return bytes.length - position;
+        }
+
+        private int readByte() {
+            if (!hasRemaining())
+                throw new IllegalArgumentException("데이터가 중간에 끊겼습니다.");
+            return bytes[position++] & 0xFF;
+        }
+
+        private long readLong() {
+            long zigzag = 0;
+            for (int shift = 0; ; shift += 7) {
+                if (shift > 63)
+                    throw new IllegalArgumentException("잘못된 숫자 형식입니다.");
+                int b = readByte();
+                zigzag |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0)
+                    break;
+            }
+            return (zigzag >>> 1) ^ -(zigzag & 1);
+        }
+
+        private String readString() {
+            int length = (int) readLong();
+            if (length < 0)
+                return null;
+            if (length > bytes.length - position)
+                throw new IllegalArgumentException("데이터가 중간에 끊겼습니다.");
+            String value = new String(bytes, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package io.hhplus.tdd.point;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 같은 key 로 진행 중인 조회가 있으면 새로 조회하지 않고 그 결과를 같이 받음 (single-flight)
+ * - 조회가 끝나면 바로 제거 (결과를 보관하지 않음)
+ * - 저장이 끝나면 forget 으로 진행 중인 조회를 떼어냄
+ *   -> 저장을 마친 뒤 들어온 조회는 저장 전에 시작된 조회에 붙지 않음
+ */
+class SingleFlight<T> {
+
+    private final ConcurrentHashMap<Long, CompletableFuture<T>> flights = new ConcurrentHashMap<>();
+    private final LongAdder joined = new LongAdder();
+
+    T execute(long key, Supplier<T> read) {
+        CompletableFuture<T> flight = new CompletableFuture<>();
+        CompletableFuture<T> inFlight = flights.putIfAbsent(key, flight);
+        if (inFlight != null) {
+            joined.increment();
+            return await(inFlight);
+        }
+
+        try {
+            T result = read.get();
+            flight.complete(result);
+            return result;
+        } catch (Throwable e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            flights.remove(key, flight);
+        }
+    }
+
+    /**
+     * 저장을 마친 직후 호출 (진행 중인 조회는 끝까지 가지만, 이후 조회는 그 결과를 받지 않음)
+     */
+    void forget(long key) {
+        flights.remove(key);
+    }
+
+    long joinedCount() {
+        return joined.sum();
+    }
+
+    private static <T> T await(CompletableFuture<T> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause)
+                throw cause;
+            throw e;
+        }
+    }
+}
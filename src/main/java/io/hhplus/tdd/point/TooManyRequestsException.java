@@ -0,0 +1,21 @@
+package io.hhplus.tdd.point;
+
+/**
+ * 유저별 대기 요청 수 또는 전체 처리 중인 요청 수가 한도를 넘어 바로 거절한 경우
+ */
+public class TooManyRequestsException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public TooManyRequestsException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * 다시 시도하기까지 기다릴 시간 (Retry-After 헤더)
+     */
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
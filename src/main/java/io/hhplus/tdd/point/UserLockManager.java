@@ -0,0 +1,97 @@
+package io.hhplus.tdd.point;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * userId 별 Lock 관리
+ * - Lock 을 잡고 있거나 기다리는 스레드가 있는 동안만 Lock 객체를 보관하고, 아무도 안 쓰면 바로 제거
+ *   (한 번이라도 요청한 유저의 Lock 이 계속 쌓이지 않도록)
+ * - 정해진 시간 안에 Lock 을 얻지 못하면 LockTimeoutException, 기다리는 중 중단되면 LockInterruptedException (대기 시간 초과로 세지 않음)
+ */
+class UserLockManager {
+
+    private final ConcurrentHashMap<Long, Entry> locks = new ConcurrentHashMap<>();
+    private final long timeoutMillis;
+    private final boolean fair;
+
+    private final LongAdder timeouts = new LongAdder();
+
+    UserLockManager(long timeoutMillis, boolean fair) {
+        this.timeoutMillis = timeoutMillis;
+        this.fair = fair;
+    }
+
+    <T> T execute(long userId, Supplier<T> action) {
+        Entry entry = acquire(userId);
+        try {
+            return action.get();
+        } finally {
+            release(userId, entry);
+        }
+    }
+
+    void execute(long userId, Runnable action) {
+        execute(userId, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    private Entry acquire(long userId) {
+        // 참조 수는 compute 안에서만 바꿔서, 제거와 참조가 엇갈리지 않게 함
+        Entry entry = locks.compute(userId, (id, current) -> {
+            Entry e = current == null ? new Entry(fair) : current;
+            e.references++;
+            return e;
+        });
+
+        boolean acquired;
+        try {
+            acquired = entry.lock.tryLock(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            dereference(userId);
+            Thread.currentThread().interrupt();
+            throw new LockInterruptedException(userId, e);
+        }
+
+        if (!acquired) {
+            dereference(userId);
+            timeouts.increment();
+            throw new LockTimeoutException(userId, timeoutMillis);
+        }
+        return entry;
+    }
+
+    private void release(long userId, Entry entry) {
+        entry.lock.unlock();
+        dereference(userId);
+    }
+
+    private void dereference(long userId) {
+        locks.computeIfPresent(userId, (id, e) -> --e.references == 0 ? null : e);
+    }
+
+    /**
+     * 현재 살아있는 Lock 수
+     */
+    int liveLockCount() {
+        return locks.size();
+    }
+
+    long timeoutCount() {
+        return timeouts.sum();
+    }
+
+    private static class Entry {
+        private final ReentrantLock lock;
+        private int references;     // Lock 을 잡고 있거나 기다리는 스레드 수 (locks.compute 안에서만 변경)
+
+        Entry(boolean fair) {
+            this.lock = new ReentrantLock(fair);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package io.hhplus.tdd.point;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * userId 별 잔고(UserPoint) 캐시
+ * - 최대 maxSize 건까지만 보관하고, 가장 오래 안 쓰인 유저부터 내보냄(LRU)
+ * - userId 로 나눈 세그먼트마다 따로 잠그고 따로 LRU 를 관리 (다른 세그먼트 유저의 조회/저장과 경합하지 않음)
+ *   내보내는 순서는 세그먼트 안에서만 LRU
+ * - put 은 반드시 해당 userId 의 Lock 안에서 호출해야 Table 과 어긋나지 않음
+ */
+class UserPointCache {
+
+    private static final int SEGMENTS = 16;
+
+    private final Segment[] segments;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    UserPointCache(int maxSize) {
+        // 세그먼트별 최대 건수의 합이 maxSize 가 되도록 나눔
+        int count = Math.max(1, Math.min(SEGMENTS, maxSize));
+        this.segments = new Segment[count];
+        for (int i = 0; i < count; i++)
+            segments[i] = new Segment(maxSize / count + (i < maxSize % count ? 1 : 0));
+    }
+
+    UserPoint get(long userId) {
+        Segment segment = segmentOf(userId);
+        UserPoint cached;
+        synchronized (segment) {
+            cached = segment.get(userId);
+        }
+        if (cached == null)
+            misses.increment();
+        else
+            hits.increment();
+        return cached;
+    }
+
+    void put(UserPoint userPoint) {
+        Segment segment = segmentOf(userPoint.id());
+        if (segment.maxSize <= 0)
+            return;
+        synchronized (segment) {
+            segment.put(userPoint.id(), userPoint);
+        }
+    }
+
+    void remove(long userId) {
+        Segment segment = segmentOf(userId);
+        synchronized (segment) {
+            segment.remove(userId);
+        }
+    }
+
+    int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    long hitCount() {
+        return hits.sum();
+    }
+
+    long missCount() {
+        return misses.sum();
+    }
+
+    long evictionCount() {
+        return evictions.sum();
+    }
+
+    private Segment segmentOf(long userId) {
+        return segments[Math.floorMod(mix(userId), segments.length)];
+    }
+
+    // 연속된 userId 가 한 세그먼트에 몰리지 않도록 비트를 섞음
+    private static int mix(long id) {
+        long h = id * 0x9e3779b97f4a7c15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * 접근 순서 LinkedHashMap (자신의 모니터 안에서만 사용)
+     */
+    private final class Segment extends LinkedHashMap<Long, UserPoint> {
+
+        private final int maxSize;
+
+        private Segment(int maxSize) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, UserPoint> eldest) {
+            boolean evict = size() > maxSize;
+            if (evict)
+                evictions.increment();
+            return evict;
+        }
+    }
+}
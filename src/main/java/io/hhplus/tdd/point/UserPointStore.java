@@ -0,0 +1,30 @@
+package io.hhplus.tdd.point;
+
+/**
+ * UserPointTable 대신 쓸 수 있는 잔고 저장소
+ * - 저장소 안에서는 UserPoint 객체로 들고 있지 않아도 됨 (조회/저장 결과로 반환할 때만 만듦)
+ * - insertOrUpdate 는 userId Lock 안에서 호출되지만, 서로 다른 유저의 호출이나 selectById 는 동시에 들어올 수 있음
+ * - 낙관적 모드(point.optimistic)에선 Lock 없이 selectVersioned -> compareAndSet 으로 저장
+ */
+public interface UserPointStore {
+
+    /**
+     * @return 없는 유저면 UserPointTable 과 같이 0 포인트
+     */
+    UserPoint selectById(long id);
+
+    /**
+     * @return 없는 유저면 0 포인트, 버전 0. 저장할 때마다 버전이 1씩 오름
+     */
+    VersionedUserPoint selectVersioned(long id);
+
+    UserPoint insertOrUpdate(long id, long amount);
+
+    /**
+     * 현재 버전이 expectedVersion 일 때만 저장
+     * @return 저장된 잔고, 그 사이 다른 저장이 있었으면 null
+     */
+    UserPoint compareAndSet(long id, long expectedVersion, long amount);
+
+    int size();
+}
@@ -0,0 +1,64 @@
+package io.hhplus.tdd.point;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * userId 별로 작업을 들어온 순서대로 하나씩 실행 (비동기 API 용)
+ * - 유저별 마지막 작업(tail) 뒤에 이어 붙이기만 하고, 앞 작업이 끝나면 executor 에서 다음 작업이 실행됨
+ * - 차례를 기다리는 동안에는 스레드를 잡고 있지 않음 (대기 중인 요청은 CompletableFuture 로만 존재)
+ * - 같은 유저의 작업이 동시에 executor 에 올라가지 않아서, 작업 안의 userId Lock 은 동기 API 요청과만 경합
+ * - 쌓이는 작업 수 제한은 호출하는 쪽(PointService 의 비동기 요청 수 제한)에서 확인
+ */
+class UserTaskChain {
+
+    private final ConcurrentHashMap<Long, CompletableFuture<?>> tails = new ConcurrentHashMap<>();
+    private final Executor executor;
+
+    UserTaskChain(Executor executor) {
+        this.executor = executor;
+    }
+
+    <T> CompletableFuture<T> submit(long userId, Supplier<T> task) {
+        CompletableFuture<T> next = new CompletableFuture<>();
+        CompletableFuture<?> previous = tails.put(userId, next);
+
+        Runnable run = () -> {
+            try {
+                next.complete(task.get());
+            } catch (Throwable e) {
+                next.completeExceptionally(e);
+            } finally {
+                // 뒤에 이어진 작업이 없으면 정리
+                tails.remove(userId, next);
+            }
+        };
+        // executor 가 작업을 받지 않으면(종료 후 등) next 를 실패로 끝내서 호출하는 쪽이 잡아둔 자리를 반환하게 함
+        try {
+            if (previous == null)
+                executor.execute(run);
+            else
+                previous.whenCompleteAsync((result, error) -> run.run(), executor)
+                        .whenComplete((result, error) -> {
+                            if (error != null)
+                                abandon(userId, next, error);
+                        });
+        } catch (RuntimeException e) {
+            abandon(userId, next, e);
+            throw e;
+        }
+        return next;
+    }
+
+    private void abandon(long userId, CompletableFuture<?> next, Throwable error) {
+        next.completeExceptionally(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+        tails.remove(userId, next);
+    }
+
+    int userCount() {
+        return tails.size();
+    }
+}
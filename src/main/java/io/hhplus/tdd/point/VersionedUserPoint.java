@@ -0,0 +1,10 @@
+package io.hhplus.tdd.point;
+
+/**
+ * 잔고와 그 잔고를 읽은 시점의 버전 (compareAndSet 의 기대값)
+ */
+public record VersionedUserPoint(
+        UserPoint userPoint,
+        long version
+) {
+}
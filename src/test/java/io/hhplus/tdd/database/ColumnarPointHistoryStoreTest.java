@@ -0,0 +1,103 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.PointHistoryPage;
+import io.hhplus.tdd.point.TransactionType;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ColumnarPointHistoryStoreTest {
+
+    @Test
+    void 내역저장_조회() {
+        // given
+        ColumnarPointHistoryStore store = new ColumnarPointHistoryStore();
+
+        // when (배열이 여러 번 늘어나도록 유저 1 은 10건)
+        for (int i = 0; i < 10; i++) {
+            store.insert(1L, 1000 * (i + 1), i % 2 == 0 ? TransactionType.CHARGE : TransactionType.USE, i);
+            store.insert(2L, 500, TransactionType.CHARGE, i);
+        }
+
+        // then
+        List<PointHistory> histories = store.selectAllByUserId(1L);
+        assertThat(histories).hasSize(10);
+        assertThat(histories.get(0)).isEqualTo(new PointHistory(1L, 1L, 1000, TransactionType.CHARGE, 0L));
+        assertThat(histories.get(9)).isEqualTo(new PointHistory(19L, 1L, 10000, TransactionType.USE, 9L));
+        assertThat(store.selectAllByUserId(3L)).isEmpty();
+    }
+
+    @Test
+    void 조회_이후_저장은_보이지_않음() {
+        // given
+        ColumnarPointHistoryStore store = new ColumnarPointHistoryStore();
+        for (int i = 0; i < 4; i++)
+            store.insert(1L, 1000, TransactionType.CHARGE, i);
+        List<PointHistory> before = store.selectAllByUserId(1L);
+
+        // when (배열이 새로 늘어나는 시점)
+        store.insert(1L, 2000, TransactionType.USE, 4L);
+
+        // then
+        assertThat(before).hasSize(4).extracting(PointHistory::amount).containsOnly(1000L);
+        assertThat(store.selectAllByUserId(1L)).hasSize(5);
+    }
+
+    @Test
+    void 청크를_넘어가도_순서대로_조회() {
+        // given (64건짜리 청크 여러 개에 걸치도록, 중간에 조회해둔 목록이 있는 상태)
+        ColumnarPointHistoryStore store = new ColumnarPointHistoryStore();
+        for (int i = 0; i < 100; i++)
+            store.insert(1L, 1000, TransactionType.CHARGE, i);
+        List<PointHistory> before = store.selectAllByUserId(1L);
+
+        // when
+        for (int i = 100; i < 200; i++)
+            store.insert(1L, 1000, TransactionType.CHARGE, i);
+
+        // then
+        assertThat(store.selectAllByUserId(1L)).extracting(PointHistory::updateMillis)
+                .containsExactlyElementsOf(LongStream.range(0, 200).boxed().toList());
+        assertThat(before).hasSize(100);
+        assertThat(store.selectPage(1L, 64, 3, null).histories()).extracting(PointHistory::id).containsExactly(65L, 66L, 67L);
+        assertThat(store.selectRange(1L, 63L, 66L)).extracting(PointHistory::updateMillis).containsExactly(63L, 64L, 65L);
+    }
+
+    @Test
+    void 내역_페이지조회() {
+        // given
+        ColumnarPointHistoryStore store = new ColumnarPointHistoryStore();
+        for (int i = 0; i < 5; i++)
+            store.insert(1L, 1000 * (i + 1), i % 2 == 0 ? TransactionType.CHARGE : TransactionType.USE, i);
+
+        // when
+        PointHistoryPage first = store.selectPage(1L, 0, 2, TransactionType.CHARGE);
+        PointHistoryPage second = store.selectPage(1L, first.nextCursor(), 2, TransactionType.CHARGE);
+
+        // then
+        assertThat(first.histories()).extracting(PointHistory::amount).containsExactly(1000L, 3000L);
+        assertThat(first.nextCursor()).isEqualTo(3L);
+        assertThat(second.histories()).extracting(PointHistory::amount).containsExactly(5000L);
+        assertThat(second.nextCursor()).isNull();
+    }
+
+    @Test
+    void 내역_기간조회() {
+        // given
+        ColumnarPointHistoryStore store = new ColumnarPointHistoryStore();
+        for (int i = 0; i < 10; i++)
+            store.insert(1L, 1000 * (i + 1), TransactionType.CHARGE, 100L + i * 10);
+
+        // when (120 이상 150 미만)
+        List<PointHistory> histories = store.selectRange(1L, 120L, 150L);
+
+        // then
+        assertThat(histories).extracting(PointHistory::updateMillis).containsExactly(120L, 130L, 140L);
+        assertThat(store.selectRange(1L, 500L, 600L)).isEmpty();
+        assertThat(store.selectRange(2L, 0L, 600L)).isEmpty();
+    }
+}
@@ -0,0 +1,102 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.PointHistoryPage;
+import io.hhplus.tdd.point.TransactionType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+
+class MappedPointHistoryJournalTest {
+
+    // 세그먼트 1개에 내역 3건
+    private static final long SEGMENT_BYTES = MappedPointHistoryJournal.RECORD_SIZE * 3L;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void 내역저장_조회() {
+        // given
+        MappedPointHistoryJournal journal = new MappedPointHistoryJournal(directory, SEGMENT_BYTES, false);
+
+        // when
+        journal.insert(1L, 10000, TransactionType.CHARGE, 1L);
+        journal.insert(2L, 5000, TransactionType.CHARGE, 2L);
+        journal.insert(1L, 3000, TransactionType.USE, 3L);
+        journal.insert(1L, 2000, TransactionType.CHARGE, 4L);   // 두 번째 세그먼트
+
+        // then
+        assertThat(journal.selectAllByUserId(1L))
+                .extracting(PointHistory::id)
+                .containsExactly(1L, 3L, 4L);
+        PointHistoryPage page = journal.selectPage(1L, 1L, 10, TransactionType.CHARGE);
+        assertThat(page.histories()).extracting(PointHistory::amount).containsExactly(2000L);
+        assertThat(page.nextCursor()).isNull();
+        journal.close();
+    }
+
+    @Test
+    void 재시작시_복구() {
+        // given
+        MappedPointHistoryJournal journal = new MappedPointHistoryJournal(directory, SEGMENT_BYTES, false);
+        for (int i = 0; i < 5; i++)
+            journal.insert(1L, 1000 * (i + 1), TransactionType.CHARGE, i);
+        journal.close();
+
+        // when
+        MappedPointHistoryJournal reopened = new MappedPointHistoryJournal(directory, SEGMENT_BYTES, false);
+        PointHistory next = reopened.insert(1L, 500, TransactionType.USE, 5L);
+
+        // then (기존 내역은 그대로, id 는 이어서 발급)
+        assertThat(next.id()).isEqualTo(6L);
+        assertThat(reopened.selectAllByUserId(1L))
+                .extracting(PointHistory::amount)
+                .containsExactly(1000L, 2000L, 3000L, 4000L, 5000L, 500L);
+        reopened.close();
+    }
+
+    @Test
+    void 세그먼트_크기_설정이_바뀌어도_복구() {
+        // given
+        MappedPointHistoryJournal journal = new MappedPointHistoryJournal(directory, SEGMENT_BYTES, false);
+        for (int i = 0; i < 5; i++)
+            journal.insert(1L, 1000 * (i + 1), TransactionType.CHARGE, i);
+        journal.close();
+
+        // when (세그먼트 1개에 내역 2건으로 설정을 바꿔서 재시작)
+        MappedPointHistoryJournal reopened = new MappedPointHistoryJournal(directory, MappedPointHistoryJournal.RECORD_SIZE * 2L, false);
+        PointHistory next = reopened.insert(1L, 500, TransactionType.USE, 5L);
+
+        // then (기존 세그먼트 크기를 그대로 사용)
+        assertThat(next.id()).isEqualTo(6L);
+        assertThat(reopened.selectAllByUserId(1L))
+                .extracting(PointHistory::amount)
+                .containsExactly(1000L, 2000L, 3000L, 4000L, 5000L, 500L);
+        reopened.close();
+    }
+
+    @Test
+    void 이어지지_않는_세그먼트가_있으면_시작중단() throws IOException {
+        // given (세그먼트 3개 중 가운데 세그먼트가 없는 상황)
+        MappedPointHistoryJournal journal = new MappedPointHistoryJournal(directory, SEGMENT_BYTES, false);
+        for (int i = 0; i < 7; i++)
+            journal.insert(1L, 1000, TransactionType.CHARGE, i);
+        journal.close();
+        Files.delete(directory.resolve("history-00000000000000000004.seg"));
+
+        // when
+        // then (남은 세그먼트는 지우지 않음)
+        assertThatThrownBy(() -> new MappedPointHistoryJournal(directory, SEGMENT_BYTES, false))
+                .isInstanceOf(IllegalStateException.class);
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files).hasSize(2);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.point.UserPoint;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.*;
+
+class PrimitiveUserPointStoreTest {
+
+    @Test
+    void 저장_조회() {
+        // given
+        PrimitiveUserPointStore store = new PrimitiveUserPointStore(16);
+
+        // when
+        UserPoint saved = store.insertOrUpdate(1L, 1000);
+        store.insertOrUpdate(1L, 1500);
+
+        // then
+        assertThat(store.selectById(1L).point()).isEqualTo(1500);
+        assertThat(store.selectById(1L).updateMillis()).isGreaterThanOrEqualTo(saved.updateMillis());
+        assertThat(store.selectById(2L).point()).isZero();
+        assertThat(store.size()).isEqualTo(1);
+    }
+
+    @Test
+    void 버전이_같을때만_저장() {
+        // given
+        PrimitiveUserPointStore store = new PrimitiveUserPointStore(16);
+        long version = store.selectVersioned(1L).version();
+
+        // when
+        UserPoint first = store.compareAndSet(1L, version, 1000);
+        UserPoint stale = store.compareAndSet(1L, version, 2000);
+
+        // then (먼저 저장한 쪽만 반영, 버전은 저장할 때마다 오름)
+        assertThat(first.point()).isEqualTo(1000);
+        assertThat(stale).isNull();
+        assertThat(store.selectVersioned(1L).userPoint().point()).isEqualTo(1000);
+        assertThat(store.selectVersioned(1L).version()).isEqualTo(version + 1);
+    }
+
+    @Test
+    void 예상보다_많은_유저() {
+        // given (처음 크기보다 훨씬 많이 넣어서 여러 번 늘어나게 함, 음수/0 userId 포함)
+        PrimitiveUserPointStore store = new PrimitiveUserPointStore(1);
+        int userCount = 100_000;
+
+        // when
+        for (long id = -10; id < userCount; id++)
+            store.insertOrUpdate(id, id * 10);
+
+        // then
+        assertThat(store.size()).isEqualTo(userCount + 10);
+        for (long id = -10; id < userCount; id++)
+            assertThat(store.selectById(id).point()).isEqualTo(id * 10);
+    }
+
+    @Test
+    void 동시_저장() throws InterruptedException {
+        // given (스레드마다 다른 유저를 저장하는 동안 다른 스레드는 계속 조회)
+        PrimitiveUserPointStore store = new PrimitiveUserPointStore(16);
+        int threadCount = 8;
+        int usersPerThread = 10_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount * 2);
+        CountDownLatch latch = new CountDownLatch(threadCount);
+
+        // when
+        for (int t = 0; t < threadCount; t++) {
+            long offset = (long) t * usersPerThread;
+            executor.submit(() -> {
+                for (long id = offset; id < offset + usersPerThread; id++)
+                    store.insertOrUpdate(id, id);
+                latch.countDown();
+            });
+            executor.submit(() -> {
+                while (latch.getCount() > 0)
+                    store.selectById(offset);
+            });
+        }
+        latch.await();
+        executor.shutdown();
+
+        // then
+        assertThat(store.size()).isEqualTo(threadCount * usersPerThread);
+        for (long id = 0; id < threadCount * usersPerThread; id++)
+            assertThat(store.selectById(id).point()).isEqualTo(id);
+    }
+}
@@ -0,0 +1,80 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.point.UserPoint;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+
+class UserPointJournalTest {
+
+    // 테스트 중에는 주기 스냅샷이 돌지 않도록
+    private static final Duration SNAPSHOT_INTERVAL = Duration.ofHours(1);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void 스냅샷_이후_WAL_재적용() throws IOException {
+        // given
+        UserPointJournal journal = new UserPointJournal(directory, SNAPSHOT_INTERVAL, false);
+        journal.append(new UserPoint(1L, 1000, 1L));
+        journal.append(new UserPoint(2L, 2000, 2L));
+        journal.snapshot();
+        journal.append(new UserPoint(1L, 500, 3L));
+        journal.append(new UserPoint(3L, 3000, 4L));
+
+        // when (종료 시 스냅샷 없이 WAL 만 남은 상황)
+        UserPointJournal reopened = new UserPointJournal(directory, SNAPSHOT_INTERVAL, false);
+
+        // then
+        assertThat(reopened.recovered(1L)).isEqualTo(new UserPoint(1L, 500, 3L));
+        assertThat(reopened.recovered(2L)).isEqualTo(new UserPoint(2L, 2000, 2L));
+        assertThat(reopened.recovered(3L)).isEqualTo(new UserPoint(3L, 3000, 4L));
+        assertThat(reopened.size()).isEqualTo(3);
+        reopened.close();
+        journal.close();
+    }
+
+    @Test
+    void 종료시_스냅샷_이전_파일_정리() throws IOException {
+        // given
+        UserPointJournal journal = new UserPointJournal(directory, SNAPSHOT_INTERVAL, false);
+        for (int i = 0; i < 10; i++)
+            journal.append(new UserPoint(1L, i * 100, i));
+
+        // when
+        journal.close();
+        UserPointJournal reopened = new UserPointJournal(directory, SNAPSHOT_INTERVAL, false);
+
+        // then (스냅샷 1개 + 새 WAL 만 남음)
+        assertThat(reopened.recovered(1L).point()).isEqualTo(900);
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files.map(path -> path.getFileName().toString()).filter(name -> name.startsWith("snapshot-")))
+                    .hasSize(1);
+        }
+        reopened.close();
+    }
+
+    @Test
+    void 쓰기_후엔_복구값_사용안함() {
+        // given
+        UserPointJournal journal = new UserPointJournal(directory, SNAPSHOT_INTERVAL, false);
+        journal.append(new UserPoint(1L, 1000, 1L));
+        journal.close();
+        UserPointJournal reopened = new UserPointJournal(directory, SNAPSHOT_INTERVAL, false);
+
+        // when
+        reopened.append(new UserPoint(1L, 1500, 2L));
+
+        // then (이후엔 Table 값을 사용)
+        assertThat(reopened.recovered(1L)).isNull();
+        reopened.close();
+    }
+}
@@ -0,0 +1,72 @@
+package io.hhplus.tdd.point;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.*;
+
+class PointAdmissionTest {
+
+    @Test
+    void 유저별_대기요청_초과시_바로거절() throws InterruptedException {
+        // given (유저 1명당 1건, 전체 2건까지)
+        PointAdmission admission = new PointAdmission(1, 2, 3);
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        // 1번 유저의 요청이 끝나지 않은 상황
+        executor.submit(() -> admission.execute(1L, () -> {
+            running.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException ignored) {
+            }
+            return null;
+        }));
+        running.await();
+
+        // when
+        // then (같은 유저는 거절, 다른 유저는 처리)
+        assertThatThrownBy(() -> admission.execute(1L, () -> null))
+                .isInstanceOf(TooManyRequestsException.class)
+                .extracting("retryAfterSeconds").isEqualTo(3L);
+        assertThat(admission.execute(2L, () -> "ok")).isEqualTo("ok");
+        assertThat(admission.userRejectionCount()).isEqualTo(1);
+        assertThat(admission.maxPendingCount()).isEqualTo(1);
+
+        release.countDown();
+        executor.shutdown();
+    }
+
+    @Test
+    void 전체_처리중_요청_초과시_바로거절() throws InterruptedException {
+        // given (전체 1건까지)
+        PointAdmission admission = new PointAdmission(10, 1, 1);
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        executor.submit(() -> admission.execute(1L, () -> {
+            running.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException ignored) {
+            }
+            return null;
+        }));
+        running.await();
+
+        // when
+        // then
+        assertThatThrownBy(() -> admission.execute(2L, () -> null))
+                .isInstanceOf(TooManyRequestsException.class);
+        assertThat(admission.globalRejectionCount()).isEqualTo(1);
+
+        release.countDown();
+        executor.shutdown();
+    }
+}
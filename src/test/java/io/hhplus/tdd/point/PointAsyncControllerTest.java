@@ -0,0 +1,105 @@
+package io.hhplus.tdd.point;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(PointAsyncController.class)
+class PointAsyncControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private PointService pointService;
+
+    @Test
+    void 포인트충전() throws Exception {
+        // given
+        long userId = 1L;
+        long amount = 5000;
+        UserPoint expected = new UserPoint(userId, 15000, System.currentTimeMillis());
+        when(pointService.chargeAsync(userId, amount, null)).thenReturn(CompletableFuture.completedFuture(expected));
+
+        // when
+        MvcResult result = mockMvc.perform(patch("/async/point/{id}/charge", userId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(String.valueOf(amount)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // then
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.point").value(expected.point()));
+    }
+
+    @Test
+    void 포인트사용_포인트부족() throws Exception {
+        // given
+        long userId = 1L;
+        long amount = 5000;
+        when(pointService.useAsync(userId, amount, null))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalArgumentException("포인트가 부족합니다.")));
+
+        // when
+        MvcResult result = mockMvc.perform(patch("/async/point/{id}/use", userId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(String.valueOf(amount)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // then (비동기로 실패해도 같은 에러 응답)
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("포인트가 부족합니다."));
+    }
+
+    @Test
+    void 포인트충전_멱등키() throws Exception {
+        // given
+        long userId = 1L;
+        long amount = 5000;
+        UserPoint expected = new UserPoint(userId, 15000, System.currentTimeMillis());
+        when(pointService.chargeAsync(userId, amount, "retry-1")).thenReturn(CompletableFuture.completedFuture(expected));
+
+        // when
+        MvcResult result = mockMvc.perform(patch("/async/point/{id}/charge", userId)
+                        .header("Idempotency-Key", "retry-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(String.valueOf(amount)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // then (멱등키를 Service 로 그대로 넘김)
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.point").value(expected.point()));
+        verify(pointService).chargeAsync(userId, amount, "retry-1");
+    }
+
+    @Test
+    void 포인트조회_바뀐게없으면_304() throws Exception {
+        // given
+        long userId = 1L;
+        when(pointService.versionOf(userId)).thenReturn("abc-3");
+
+        // when
+        // then (비동기 작업을 만들지 않고 바로 304)
+        mockMvc.perform(get("/async/point/{id}", userId)
+                        .header("If-None-Match", "\"abc-3-json\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"abc-3-json\""));
+        verify(pointService, never()).selectByIdAsync(userId);
+    }
+}
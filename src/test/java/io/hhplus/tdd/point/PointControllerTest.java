@@ -1,14 +1,18 @@
 package io.hhplus.tdd.point;
 
 import org.junit.jupiter.api.Test;
+import io.hhplus.tdd.ErrorResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.util.List;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
@@ -38,6 +42,53 @@ class PointControllerTest {
                 .andExpect(jsonPath("$.point").value(expected.point()));
     }
 
+    @Test
+    void 포인트조회_바뀐게없으면_304() throws Exception {
+        // given
+        long userId = 1L;
+        when(pointService.versionOf(userId)).thenReturn("abc-3");
+
+        // when
+        // then (Service 조회 없이 304)
+        mockMvc.perform(get("/point/{id}", userId)
+                        .header("If-None-Match", "\"abc-3-json\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"abc-3-json\""));
+        verify(pointService, never()).selectById(userId);
+    }
+
+    @Test
+    void 포인트내역조회_바뀌었으면_새_ETag() throws Exception {
+        // given
+        long userId = 1L;
+        when(pointService.versionOf(userId)).thenReturn("abc-4");
+        when(pointService.selectHistoryById(userId)).thenReturn(List.of());
+
+        // when
+        // then
+        mockMvc.perform(get("/point/{id}/histories", userId)
+                        .header("If-None-Match", "\"abc-3-json\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"abc-4-json\""));
+    }
+
+    @Test
+    void 포인트내역조회_응답형식마다_다른_ETag() throws Exception {
+        // given (JSON 응답의 ETag 를 가진 클라이언트가 바이너리로 조회)
+        long userId = 1L;
+        when(pointService.versionOf(userId)).thenReturn("abc-3");
+
+        // when
+        // then (304 가 아니라 바이너리 응답, 캐시가 형식별로 따로 저장하도록 Vary: Accept)
+        mockMvc.perform(get("/point/{id}/histories", userId)
+                        .accept(PointWireFormat.MEDIA_TYPE_VALUE)
+                        .header("If-None-Match", "\"abc-3-json\""))
+                .andExpect(request().asyncStarted())
+                .andExpect(header().string("ETag", "\"abc-3-binary\""))
+                .andExpect(header().string("Vary", containsString("Accept")))
+                .andExpect(header().doesNotExist("Last-Modified"));
+    }
+
     @Test
     void 포인트내역조회() throws Exception {
         // given
@@ -59,13 +110,118 @@ class PointControllerTest {
                 .andExpect(jsonPath("$[1].type").value("USE"));
     }
 
+    @Test
+    void 포인트내역조회_바이너리() throws Exception {
+        // given
+        long userId = 1L;
+        long now = System.currentTimeMillis();
+        List<PointHistory> histories = List.of(
+                new PointHistory(1L, userId, 10000, TransactionType.CHARGE, now),
+                new PointHistory(2L, userId, 5000, TransactionType.USE, now + 1)
+        );
+        doAnswer(invocation -> {
+            PointHistoryVisitor visitor = invocation.getArgument(1);
+            histories.forEach(history -> visitor.visit(history.id(), history.amount(), history.type(), history.updateMillis()));
+            return null;
+        }).when(pointService).writeHistoryById(eq(userId), any());
+
+        // when
+        MvcResult result = mockMvc.perform(get("/point/{id}/histories", userId)
+                        .accept(PointWireFormat.MEDIA_TYPE_VALUE))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // then
+        MvcResult dispatched = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(PointWireFormat.MEDIA_TYPE_VALUE))
+                .andReturn();
+        assertThat(PointWireFormat.readHistories(dispatched.getResponse().getContentAsByteArray())).isEqualTo(histories);
+    }
+
+    @Test
+    void 포인트내역_기간조회() throws Exception {
+        // given
+        long userId = 1L;
+        List<PointHistory> histories = List.of(new PointHistory(3L, userId, 10000, TransactionType.CHARGE, 150L));
+        when(pointService.selectHistoryByIdBetween(userId, 100L, 200L)).thenReturn(histories);
+
+        // when
+        // then
+        mockMvc.perform(get("/point/{id}/histories", userId)
+                        .param("from", "100")
+                        .param("to", "200"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].updateMillis").value(150));
+    }
+
+    @Test
+    void 포인트요약() throws Exception {
+        // given
+        long userId = 1L;
+        PointSummary summary = new PointSummary(userId, 12000, 3000, 2, 1, 3, 1L, 3L);
+        when(pointService.selectSummaryById(userId)).thenReturn(summary);
+
+        // when
+        // then
+        mockMvc.perform(get("/point/{id}/summary", userId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalCharged").value(12000))
+                .andExpect(jsonPath("$.totalUsed").value(3000))
+                .andExpect(jsonPath("$.count").value(3));
+    }
+
+    @Test
+    void 포인트내역_페이지조회() throws Exception {
+        // given
+        long userId = 1L;
+        PointHistoryPage page = new PointHistoryPage(List.of(
+                new PointHistory(11L, userId, 10000, TransactionType.CHARGE, System.currentTimeMillis()),
+                new PointHistory(12L, userId, 2000, TransactionType.CHARGE, System.currentTimeMillis())
+        ), 12L);
+        when(pointService.selectHistoryPage(userId, 10L, 2, TransactionType.CHARGE)).thenReturn(page);
+
+        // when
+        // then
+        mockMvc.perform(get("/point/{id}/histories/page", userId)
+                        .param("cursor", "10")
+                        .param("limit", "2")
+                        .param("type", "CHARGE"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.histories.length()").value(2))
+                .andExpect(jsonPath("$.histories[0].id").value(11))
+                .andExpect(jsonPath("$.nextCursor").value(12));
+    }
+
+    @Test
+    void 포인트내역_스트리밍() throws Exception {
+        // given
+        long userId = 1L;
+        when(pointService.selectHistoryPage(userId, null, 500, null)).thenReturn(new PointHistoryPage(List.of(
+                new PointHistory(1L, userId, 10000, TransactionType.CHARGE, System.currentTimeMillis()),
+                new PointHistory(2L, userId, 5000, TransactionType.USE, System.currentTimeMillis())
+        ), null));
+
+        // when
+        MvcResult result = mockMvc.perform(get("/point/{id}/histories/stream", userId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // then (한 줄에 내역 1건)
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("\"amount\":10000")))
+                .andExpect(content().string(containsString("\"type\":\"USE\"")));
+    }
+
     @Test
     void 포인트충전() throws Exception {
         // given
         long userId = 1L;
         long amount = 5000;
         UserPoint expected = new UserPoint(userId, 15000, System.currentTimeMillis());
-        when(pointService.charge(userId, amount)).thenReturn(expected);
+        when(pointService.charge(userId, amount, null)).thenReturn(expected);
 
         // when
         // then
@@ -83,7 +239,7 @@ class PointControllerTest {
         long userId = 1L;
         long amount = 3000;
         UserPoint expected = new UserPoint(userId, 7000, System.currentTimeMillis());
-        when(pointService.use(userId, amount)).thenReturn(expected);
+        when(pointService.use(userId, amount, null)).thenReturn(expected);
 
         // when
         // then
@@ -95,4 +251,68 @@ class PointControllerTest {
                 .andExpect(jsonPath("$.point").value(expected.point()))
                 .andDo(print());
     }
-}
\ No newline at end of file
+
+    @Test
+    void 포인트충전_멱등키() throws Exception {
+        // given
+        long userId = 1L;
+        long amount = 5000;
+        UserPoint expected = new UserPoint(userId, 15000, System.currentTimeMillis());
+        when(pointService.charge(userId, amount, "retry-1")).thenReturn(expected);
+
+        // when
+        // then
+        mockMvc.perform(patch("/point/{id}/charge", userId)
+                        .header("Idempotency-Key", "retry-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(String.valueOf(amount)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.point").value(expected.point()));
+        verify(pointService).charge(userId, amount, "retry-1");
+    }
+
+    @Test
+    void 요청이_몰리면_429() throws Exception {
+        // given
+        long userId = 1L;
+        long amount = 5000;
+        when(pointService.charge(userId, amount, null)).thenThrow(new TooManyRequestsException("같은 유저의 요청이 너무 많습니다.", 1));
+
+        // when
+        // then
+        mockMvc.perform(patch("/point/{id}/charge", userId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(String.valueOf(amount)))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "1"))
+                .andExpect(jsonPath("$.code").value("429"));
+    }
+
+    @Test
+    void 포인트일괄처리() throws Exception {
+        // given
+        List<PointOperation> operations = List.of(
+                new PointOperation(1L, TransactionType.CHARGE, 5000),
+                new PointOperation(2L, TransactionType.USE, 3000)
+        );
+        List<PointOperationResult> results = List.of(
+                PointOperationResult.success(operations.get(0), new UserPoint(1L, 15000, System.currentTimeMillis())),
+                PointOperationResult.failure(operations.get(1), new ErrorResponse("400", "포인트가 부족합니다."))
+        );
+        when(pointService.bulk(operations)).thenReturn(results);
+
+        // when
+        // then
+        mockMvc.perform(post("/point/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                [{"userId": 1, "type": "CHARGE", "amount": 5000},
+                                 {"userId": 2, "type": "USE", "amount": 3000}]
+                                """))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].userPoint.point").value(15000))
+                .andExpect(jsonPath("$[1].error.message").value("포인트가 부족합니다."))
+                .andDo(print());
+    }
+}
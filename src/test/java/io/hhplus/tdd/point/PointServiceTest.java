@@ -2,14 +2,28 @@ package io.hhplus.tdd.point;
 
 import io.hhplus.tdd.database.PointHistoryTable;
 import io.hhplus.tdd.database.UserPointTable;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -17,7 +31,6 @@ import static org.mockito.Mockito.*;
 @ExtendWith(MockitoExtension.class)
 public class PointServiceTest {
 
-    @InjectMocks
     private PointService pointService;
 
     @Mock
@@ -26,6 +39,15 @@ public class PointServiceTest {
     @Mock
     private PointHistoryTable pointHistoryTable;
 
+    private final PointProperties properties = new PointProperties();
+    // setUp 의 pointService 전용 (같은 이름 지표는 먼저 등록한 서비스 것만 남으므로 테스트 안에서 만드는 서비스는 각자 레지스트리를 씀)
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() {
+        pointService = new PointService(userPointTable, pointHistoryTable, properties, meterRegistry);
+    }
+
     @Test
     void 포인트조회() {
         // given
@@ -40,23 +62,95 @@ public class PointServiceTest {
         assertThat(actual.point()).isEqualTo(expected.point());
     }
 
+    @Test
+    void 포인트조회_캐시() {
+        // given
+        long id = 1L;
+        UserPoint expected = new UserPoint(id, 1000, System.currentTimeMillis());
+        when(userPointTable.selectById(id)).thenReturn(expected);
+
+        // when
+        pointService.selectById(id);
+        UserPoint actual = pointService.selectById(id);
+
+        // then (두 번째 조회는 Table 을 거치지 않음)
+        assertThat(actual).isEqualTo(expected);
+        verify(userPointTable, times(1)).selectById(id);
+    }
+
+    @Test
+    void 포인트충전_후_조회는_캐시() {
+        // given
+        long userId = 1L;
+        long now = System.currentTimeMillis();
+        when(userPointTable.selectById(userId)).thenReturn(new UserPoint(userId, 10000, now));
+        when(userPointTable.insertOrUpdate(userId, 15000)).thenReturn(new UserPoint(userId, 15000, now));
+
+        // when
+        pointService.charge(userId, 5000);
+        UserPoint actual = pointService.selectById(userId);
+
+        // then (충전 시 저장한 값이 그대로 조회됨)
+        assertThat(actual.point()).isEqualTo(15000);
+        verify(userPointTable, times(1)).selectById(userId);
+    }
+
     @Test
     void 포인트내역조회() {
         // given
         long userId = 1L;
-        List<PointHistory> expected = new ArrayList<>();
-        expected.add(new PointHistory(1L, userId, 10000, TransactionType.CHARGE, System.currentTimeMillis()));
-        expected.add(new PointHistory(2L, userId, 5000, TransactionType.USE, System.currentTimeMillis()));
-        expected.add(new PointHistory(3L, userId, 2000, TransactionType.CHARGE, System.currentTimeMillis()));
-        when(pointHistoryTable.selectAllByUserId(userId)).thenReturn(expected);
+        givenTables(userId);
+        pointService.charge(userId, 10000);
+        pointService.use(userId, 5000);
+        pointService.charge(userId, 2000);
 
         // when
         List<PointHistory> actual = pointService.selectHistoryById(userId);
 
         // then
-        assertThat(actual).hasSize(expected.size());
-        assertThat(actual.get(0).amount()).isEqualTo(expected.get(0).amount());
-        assertThat(actual.get(1).type()).isEqualTo(expected.get(1).type());
+        assertThat(actual).extracting(PointHistory::amount).containsExactly(10000L, 5000L, 2000L);
+        assertThat(actual.get(1).type()).isEqualTo(TransactionType.USE);
+    }
+
+    @Test
+    void 포인트내역조회_인덱스() {
+        // given
+        long userId = 1L;
+        givenTables(userId);
+        pointService.charge(userId, 10000);
+
+        // when
+        pointService.selectHistoryById(userId);
+        pointService.use(userId, 3000);
+        List<PointHistory> actual = pointService.selectHistoryById(userId);
+
+        // then (저장할 때 인덱스에 추가되므로 Table 전체 조회는 하지 않음)
+        assertThat(actual).extracting(PointHistory::id).containsExactly(1L, 2L);
+        assertThat(pointService.selectHistoryById(2L)).isEmpty();
+        verify(pointHistoryTable, never()).selectAllByUserId(anyLong());
+    }
+
+    @Test
+    void 포인트내역_페이지조회() {
+        // given
+        long userId = 1L;
+        givenTables(userId);
+        pointService.charge(userId, 10000);
+        pointService.use(userId, 5000);
+        pointService.charge(userId, 2000);
+        pointService.charge(userId, 1000);
+
+        // when
+        PointHistoryPage first = pointService.selectHistoryPage(userId, null, 2, TransactionType.CHARGE);
+        PointHistoryPage second = pointService.selectHistoryPage(userId, first.nextCursor(), 2, TransactionType.CHARGE);
+
+        // then
+        assertThat(first.histories()).extracting(PointHistory::id).containsExactly(1L, 3L);
+        assertThat(first.nextCursor()).isEqualTo(3L);
+        assertThat(second.histories()).extracting(PointHistory::id).containsExactly(4L);
+        assertThat(second.nextCursor()).isNull();
+        assertThatThrownBy(() -> pointService.selectHistoryPage(userId, null, 1001, null))
+                .isInstanceOf(IllegalArgumentException.class);
     }
 
     @Test
@@ -147,4 +241,741 @@ public class PointServiceTest {
                 .isInstanceOf(IllegalArgumentException.class)
                 .hasMessage("포인트가 부족합니다.");
     }
+
+    @Test
+    void 그룹커밋_동시충전() throws InterruptedException {
+        // given (그룹 커밋은 실제 Table 로 검증)
+        properties.getGroupCommit().setEnabled(true);
+        PointHistoryTable historyTable = new PointHistoryTable();
+        PointService service = new PointService(new UserPointTable(), historyTable, properties, new SimpleMeterRegistry());
+        long userId = 1L;
+
+        // 10만원씩 21번 충전 -> 최대 보유 포인트(200만) 때문에 1건은 거절되어야 함
+        int threadCount = 21;
+
+        // when
+        int rejected = concurrentCharge(service, userId, threadCount, 100_000);
+
+        // then
+        assertThat(service.selectById(userId).point()).isEqualTo(2_000_000);
+        assertThat(rejected).isEqualTo(1);
+        assertThat(historyTable.selectAllByUserId(userId)).hasSize(threadCount - 1);
+    }
+
+    @Test
+    void 그룹커밋_최대배치크기는_1이상() {
+        // when
+        // then
+        assertThatThrownBy(() -> properties.getGroupCommit().setMaxBatchSize(0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageStartingWith("그룹 커밋 최대 배치 크기는 1 이상이어야 합니다.");
+    }
+
+    @Test
+    void 그룹커밋_Lock대기시간초과_요청은_처리안함() throws Exception {
+        // given (첫 요청이 Lock 을 잡고 Table 을 조회하는 동안 두 번째 요청은 Lock 대기 시간 초과)
+        properties.getGroupCommit().setEnabled(true);
+        properties.getLock().setTimeout(Duration.ofMillis(100));
+        PointService service = new PointService(userPointTable, pointHistoryTable, properties, new SimpleMeterRegistry());
+        long userId = 1L;
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(userPointTable.selectById(userId)).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return new UserPoint(userId, 1000, System.currentTimeMillis());
+        });
+        when(userPointTable.insertOrUpdate(eq(userId), anyLong()))
+                .thenAnswer(invocation -> new UserPoint(userId, invocation.getArgument(1), System.currentTimeMillis()));
+        CompletableFuture<UserPoint> first = CompletableFuture.supplyAsync(() -> service.charge(userId, 100));
+        started.await();
+
+        // when
+        assertThatThrownBy(() -> service.charge(userId, 500))
+                .isInstanceOf(LockTimeoutException.class);
+        release.countDown();
+
+        // then (실패 응답을 받은 요청은 이후 배치에서도 처리되지 않음)
+        assertThat(first.get(5, TimeUnit.SECONDS).point()).isEqualTo(1100);
+        assertThat(service.charge(userId, 10).point()).isEqualTo(1110);
+        verify(userPointTable, never()).insertOrUpdate(userId, 1610);
+    }
+
+    @Test
+    void 비동기_요청은_동기_요청수_제한에_세지않음() throws Exception {
+        // given (동기 요청은 전체 1건까지, 비동기 요청 1건이 Lock 을 잡고 Table 을 조회하는 중)
+        properties.getAdmission().setMaxInFlight(1);
+        PointService service = new PointService(userPointTable, pointHistoryTable, properties, new SimpleMeterRegistry());
+        long userId = 1L;
+        long otherUserId = 2L;
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(userPointTable.selectById(userId)).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return new UserPoint(userId, 1000, System.currentTimeMillis());
+        });
+        when(userPointTable.insertOrUpdate(eq(userId), anyLong()))
+                .thenAnswer(invocation -> new UserPoint(userId, invocation.getArgument(1), System.currentTimeMillis()));
+        when(userPointTable.selectById(otherUserId)).thenReturn(new UserPoint(otherUserId, 500, System.currentTimeMillis()));
+        CompletableFuture<UserPoint> first = service.chargeAsync(userId, 100);
+        started.await();
+
+        // when
+        UserPoint other = service.selectById(otherUserId);
+
+        // then (비동기 요청은 Tomcat 스레드를 잡지 않으므로 동기 요청 자리를 차지하지 않음)
+        assertThat(other.point()).isEqualTo(500);
+        release.countDown();
+        assertThat(first.get(5, TimeUnit.SECONDS).point()).isEqualTo(1100);
+        service.close();
+    }
+
+    @Test
+    void 비동기_대기열_유저별_한도() throws Exception {
+        // given (요청 수 제한 없이 비동기 대기열만 유저 1명당 1건까지, 첫 요청이 Table 을 조회하는 중)
+        properties.getAdmission().setEnabled(false);
+        properties.getAsync().setMaxPendingPerUser(1);
+        MeterRegistry registry = new SimpleMeterRegistry();
+        PointService service = new PointService(userPointTable, pointHistoryTable, properties, registry);
+        long userId = 1L;
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(userPointTable.selectById(userId)).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return new UserPoint(userId, 1000, System.currentTimeMillis());
+        });
+        when(userPointTable.insertOrUpdate(eq(userId), anyLong()))
+                .thenAnswer(invocation -> new UserPoint(userId, invocation.getArgument(1), System.currentTimeMillis()));
+        CompletableFuture<UserPoint> first = service.chargeAsync(userId, 100);
+        started.await();
+
+        // when
+        // then (대기열에 이어 붙이지 않고 바로 거절, 첫 요청이 끝나면 다시 받음)
+        assertThatThrownBy(() -> service.chargeAsync(userId, 500))
+                .isInstanceOf(TooManyRequestsException.class);
+        release.countDown();
+        assertThat(first.get(5, TimeUnit.SECONDS).point()).isEqualTo(1100);
+        assertThat(service.chargeAsync(userId, 10).get(5, TimeUnit.SECONDS).point()).isEqualTo(1110);
+        assertThat(registry.get("point.async.rejections").functionCounter().count()).isEqualTo(1);
+        service.close();
+    }
+
+    @Test
+    void 내역비동기저장() {
+        // given
+        properties.getHistory().setAsync(true);
+        PointHistoryTable historyTable = new PointHistoryTable();
+        PointService service = new PointService(new UserPointTable(), historyTable, properties, new SimpleMeterRegistry());
+        long userId = 1L;
+
+        // when
+        service.charge(userId, 10000);
+        service.use(userId, 3000);
+        service.charge(userId, 2000);
+
+        // then (저장 전이어도 내 내역은 바로 조회되고, 종료 시 모두 저장됨)
+        assertThat(service.selectHistoryById(userId))
+                .extracting(PointHistory::amount)
+                .containsExactly(10000L, 3000L, 2000L);
+
+        service.close();
+        assertThat(historyTable.selectAllByUserId(userId))
+                .extracting(PointHistory::type)
+                .containsExactly(TransactionType.CHARGE, TransactionType.USE, TransactionType.CHARGE);
+    }
+
+    @Test
+    void 내역비동기저장_대기중_중단되면_조회에_남지않음() throws Exception {
+        // given (대기열 1건, 첫 내역 저장이 끝나지 않아 두 번째 내역이 대기열을 채운 상태)
+        properties.getHistory().setAsync(true);
+        properties.getHistory().setOutboxCapacity(1);
+        long userId = 1L;
+        CountDownLatch release = new CountDownLatch(1);
+        when(userPointTable.selectById(userId)).thenReturn(UserPoint.empty(userId));
+        when(userPointTable.insertOrUpdate(eq(userId), anyLong()))
+                .thenAnswer(invocation -> new UserPoint(userId, invocation.getArgument(1), System.currentTimeMillis()));
+        when(pointHistoryTable.insert(eq(userId), anyLong(), any(TransactionType.class), anyLong())).thenAnswer(invocation -> {
+            release.await();
+            return new PointHistory(1L, userId, invocation.getArgument(1), invocation.getArgument(2), invocation.getArgument(3));
+        });
+        PointService service = new PointService(userPointTable, pointHistoryTable, properties, new SimpleMeterRegistry());
+        service.charge(userId, 100);
+        service.charge(userId, 200);
+        AtomicBoolean interrupted = new AtomicBoolean();
+        Thread third = new Thread(() -> {
+            try {
+                service.charge(userId, 300);
+            } catch (IllegalStateException e) {
+                interrupted.set(true);
+            }
+        });
+        third.start();
+        while (third.getState() != Thread.State.WAITING)
+            Thread.sleep(10);
+
+        // when
+        third.interrupt();
+        third.join();
+
+        // then (대기열에 넣지 못한 내역은 저장 전 내역으로도 보이지 않음)
+        assertThat(interrupted).isTrue();
+        assertThat(service.selectHistoryById(userId))
+                .extracting(PointHistory::amount)
+                .containsExactly(100L, 200L);
+        release.countDown();
+        service.close();
+    }
+
+    @Test
+    void 포인트일괄처리() {
+        // given
+        PointService service = new PointService(new UserPointTable(), new PointHistoryTable(), properties, new SimpleMeterRegistry());
+        List<PointOperation> operations = List.of(
+                new PointOperation(1L, TransactionType.CHARGE, 10000),
+                new PointOperation(2L, TransactionType.CHARGE, 5000),
+                new PointOperation(1L, TransactionType.USE, 7000),
+                new PointOperation(2L, TransactionType.USE, 6000),
+                new PointOperation(1L, TransactionType.USE, 3000)
+        );
+
+        // when
+        List<PointOperationResult> results = service.bulk(operations);
+
+        // then (같은 유저는 순서대로 처리되고, 실패한 건만 에러)
+        assertThat(results).hasSize(operations.size());
+        assertThat(results.get(2).userPoint().point()).isEqualTo(3000);
+        assertThat(results.get(3).error().message()).isEqualTo("포인트가 부족합니다.");
+        assertThat(results.get(4).userPoint().point()).isZero();
+        assertThat(service.selectById(2L).point()).isEqualTo(5000);
+    }
+
+    @Test
+    void 거절사유별_지표() {
+        // given
+        long userId = 1L;
+        when(userPointTable.selectById(userId)).thenReturn(new UserPoint(userId, 10000, System.currentTimeMillis()));
+
+        // when
+        assertThatThrownBy(() -> pointService.charge(userId, 2_000_001)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> pointService.use(userId, 20000)).isInstanceOf(IllegalArgumentException.class);
+
+        // then
+        assertThat(meterRegistry.get("point.rejections").tag("reason", "max_charge").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("point.rejections").tag("reason", "insufficient_balance").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("point.lock.wait").tag("operation", "use").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void 잔고저장소_사용시_Table_미사용() {
+        // given
+        properties.getBalanceStore().setEnabled(true);
+        PointService service = new PointService(userPointTable, new PointHistoryTable(), properties, new SimpleMeterRegistry());
+        long userId = 1L;
+
+        // when
+        service.charge(userId, 10000);
+        service.use(userId, 3000);
+
+        // then
+        assertThat(service.selectById(userId).point()).isEqualTo(7000);
+        verifyNoInteractions(userPointTable);
+    }
+
+    @Test
+    void 버전은_잔고나_내역이_바뀔때만_변경() {
+        // given
+        long userId = 1L;
+        long now = System.currentTimeMillis();
+        when(userPointTable.selectById(userId)).thenReturn(new UserPoint(userId, 10000, now));
+        when(userPointTable.insertOrUpdate(userId, 15000)).thenReturn(new UserPoint(userId, 15000, now));
+        String initial = pointService.versionOf(userId);
+
+        // when
+        pointService.selectById(userId);
+        String afterRead = pointService.versionOf(userId);
+        pointService.charge(userId, 5000);
+        String afterCharge = pointService.versionOf(userId);
+
+        // then
+        assertThat(afterRead).isEqualTo(initial);
+        assertThat(afterCharge).isNotEqualTo(initial);
+    }
+
+    @Test
+    void 멱등키_재시도는_처음결과_반환() {
+        // given
+        long userId = 1L;
+        long now = System.currentTimeMillis();
+        when(userPointTable.selectById(userId)).thenReturn(new UserPoint(userId, 10000, now));
+        when(userPointTable.insertOrUpdate(userId, 15000)).thenReturn(new UserPoint(userId, 15000, now));
+        UserPoint first = pointService.charge(userId, 5000, "retry-1");
+
+        // when
+        UserPoint retried = pointService.charge(userId, 5000, "retry-1");
+
+        // then (Table 에는 한 번만 반영)
+        assertThat(retried).isEqualTo(first);
+        verify(userPointTable, times(1)).insertOrUpdate(anyLong(), anyLong());
+        assertThat(meterRegistry.get("point.idempotency.replays").functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void 멱등키_재시도는_처음에러_반환() {
+        // given
+        long userId = 1L;
+        when(userPointTable.selectById(userId)).thenReturn(new UserPoint(userId, 1000, System.currentTimeMillis()));
+        assertThatThrownBy(() -> pointService.use(userId, 5000, "retry-1")).isInstanceOf(IllegalArgumentException.class);
+
+        // when
+        // then (같은 에러, Table 조회 없음)
+        assertThatThrownBy(() -> pointService.use(userId, 5000, "retry-1"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("포인트가 부족합니다.");
+        assertThatThrownBy(() -> pointService.use(userId, 3000, "retry-1"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("같은 멱등키로 다른 요청을 보낼 수 없습니다.");
+        assertThat(meterRegistry.get("point.rejections").tag("reason", "insufficient_balance").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void 멱등키_잔고반영후_실패는_재시도해도_다시처리안함() {
+        // given (잔고는 저장됐는데 내역 저장이 실패)
+        long userId = 1L;
+        long now = System.currentTimeMillis();
+        when(userPointTable.selectById(userId)).thenReturn(new UserPoint(userId, 10000, now));
+        when(userPointTable.insertOrUpdate(userId, 15000)).thenReturn(new UserPoint(userId, 15000, now));
+        when(pointHistoryTable.insert(eq(userId), eq(5000L), eq(TransactionType.CHARGE), anyLong()))
+                .thenThrow(new IllegalStateException("내역 저장 실패"));
+        assertThatThrownBy(() -> pointService.charge(userId, 5000, "retry-1")).isInstanceOf(IllegalStateException.class);
+
+        // when
+        // then (같은 에러, 잔고에 다시 반영하지 않음)
+        assertThatThrownBy(() -> pointService.charge(userId, 5000, "retry-1"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("내역 저장 실패");
+        verify(userPointTable, times(1)).insertOrUpdate(anyLong(), anyLong());
+    }
+
+    @Test
+    void 멱등키_처리중인_키는_내보내지_않음() throws Exception {
+        // given (최대 1건, 첫 요청이 Table 을 조회하는 동안 다른 키의 요청이 끝남)
+        properties.getIdempotency().setMaxSize(1);
+        PointService service = new PointService(userPointTable, pointHistoryTable, properties, new SimpleMeterRegistry());
+        long userId = 1L;
+        long otherUserId = 2L;
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(userPointTable.selectById(userId)).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return new UserPoint(userId, 1000, System.currentTimeMillis());
+        });
+        when(userPointTable.selectById(otherUserId)).thenReturn(new UserPoint(otherUserId, 0, System.currentTimeMillis()));
+        when(userPointTable.insertOrUpdate(anyLong(), anyLong()))
+                .thenAnswer(invocation -> new UserPoint(invocation.getArgument(0), invocation.getArgument(1), System.currentTimeMillis()));
+        CompletableFuture<UserPoint> first = CompletableFuture.supplyAsync(() -> service.charge(userId, 100, "retry-1"));
+        started.await();
+        service.charge(otherUserId, 100, "other-1");
+
+        // when
+        CompletableFuture<UserPoint> retried = CompletableFuture.supplyAsync(() -> service.charge(userId, 100, "retry-1"));
+        release.countDown();
+
+        // then (재시도는 처음 요청의 결과를 기다려서 그대로 반환, 잔고에는 한 번만 반영)
+        assertThat(retried.get(5, TimeUnit.SECONDS)).isEqualTo(first.get(5, TimeUnit.SECONDS));
+        verify(userPointTable, times(1)).insertOrUpdate(userId, 1100);
+        service.close();
+    }
+
+    @Test
+    void 비동기_처리스레드가_작업을_받지않으면_자리를_반환() {
+        // given (유저 1명당 비동기 요청 1건까지, 처리 스레드는 이미 종료)
+        properties.getAsync().setMaxPendingPerUser(1);
+        MeterRegistry registry = new SimpleMeterRegistry();
+        PointService service = new PointService(userPointTable, pointHistoryTable, properties, registry);
+        service.close();
+
+        // when
+        // then (한도에 걸리지 않고 매번 같은 이유로 실패, 잡아둔 자리는 남지 않음)
+        for (int i = 0; i < 2; i++)
+            assertThatThrownBy(() -> service.chargeAsync(1L, 100))
+                    .isInstanceOf(RejectedExecutionException.class);
+        assertThat(registry.get("point.async.pending").gauge().value()).isZero();
+    }
+
+    @Test
+    void 비동기_충전사용_순서보장() {
+        // given (처리 스레드 2개로 같은 유저 요청 여러 건)
+        properties.getAsync().setParallelism(2);
+        PointService service = new PointService(new UserPointTable(), new PointHistoryTable(), properties, new SimpleMeterRegistry());
+        long userId = 1L;
+
+        // when
+        List<CompletableFuture<UserPoint>> results = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            results.add(service.chargeAsync(userId, 1000));
+            results.add(service.useAsync(userId, 1000));
+        }
+        CompletableFuture<UserPoint> failed = service.useAsync(userId, 1);
+
+        // then (들어온 순서대로 처리되어 사용은 모두 성공, 마지막은 잔고 부족)
+        assertThat(results).allSatisfy(result -> assertThat(result.join()).isNotNull());
+        assertThat(results.get(results.size() - 1).join().point()).isZero();
+        assertThatThrownBy(failed::join).hasCauseInstanceOf(IllegalArgumentException.class);
+        assertThat(service.selectHistoryByIdAsync(userId).join()).hasSize(10);
+    }
+
+    @Test
+    void 포인트요약() {
+        // given
+        PointService service = new PointService(new UserPointTable(), pointHistoryTable, properties, new SimpleMeterRegistry());
+        long userId = 1L;
+        service.charge(userId, 10000);
+        service.use(userId, 3000);
+        service.charge(userId, 2000);
+        assertThatThrownBy(() -> service.use(userId, 100000)).isInstanceOf(IllegalArgumentException.class);
+
+        // when
+        PointSummary summary = service.selectSummaryById(userId);
+
+        // then (실패한 요청은 제외, 내역 조회 없음)
+        assertThat(summary.totalCharged()).isEqualTo(12000);
+        assertThat(summary.totalUsed()).isEqualTo(3000);
+        assertThat(summary.count()).isEqualTo(3);
+        assertThat(summary.firstUpdateMillis()).isLessThanOrEqualTo(summary.lastUpdateMillis());
+        assertThat(service.selectSummaryById(2L)).isEqualTo(PointSummary.empty(2L));
+        verify(pointHistoryTable, never()).selectAllByUserId(anyLong());
+    }
+
+    @Test
+    void 포인트내역_기간조회() {
+        // given
+        properties.getHistory().setTimeline(true);
+        PointService service = new PointService(new UserPointTable(), new PointHistoryTable(), properties, new SimpleMeterRegistry());
+        long start = System.currentTimeMillis();
+        service.charge(1L, 10000);
+        service.charge(2L, 5000);
+        service.use(1L, 3000);
+        long end = System.currentTimeMillis() + 1;
+
+        // when
+        List<PointHistory> histories = service.selectHistoryByIdBetween(1L, start, end);
+        List<PointHistory> exported = service.exportHistories(start, end);
+
+        // then
+        assertThat(histories).extracting(PointHistory::amount).containsExactly(10000L, 3000L);
+        assertThat(service.selectHistoryByIdBetween(1L, end, Long.MAX_VALUE)).isEmpty();
+        assertThat(exported).extracting(PointHistory::userId).containsExactlyInAnyOrder(1L, 2L, 1L);
+        assertThatThrownBy(() -> service.exportHistories(end, start))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("조회 시작 시각이 종료 시각보다 늦습니다.");
+    }
+
+    @Test
+    void 내역저널_재시작후_정산조회에_이전내역포함(@TempDir Path directory) {
+        // given (내역 저널에 저장한 뒤 재시작)
+        properties.getHistory().setTimeline(true);
+        properties.getHistory().getJournal().setEnabled(true);
+        properties.getHistory().getJournal().setDirectory(directory.toString());
+        PointService service = new PointService(new UserPointTable(), new PointHistoryTable(), properties, new SimpleMeterRegistry());
+        long start = System.currentTimeMillis();
+        service.charge(1L, 10000);
+        service.charge(2L, 5000);
+        service.close();
+
+        // when
+        PointService restarted = new PointService(new UserPointTable(), new PointHistoryTable(), properties, new SimpleMeterRegistry());
+        List<PointHistory> exported = restarted.exportHistories(start, Long.MAX_VALUE);
+
+        // then
+        assertThat(exported).extracting(PointHistory::userId).containsExactlyInAnyOrder(1L, 2L);
+        restarted.close();
+    }
+
+    @Test
+    void 내역저널_재시작후_요약복구(@TempDir Path directory) {
+        // given (내역 저널에 저장한 뒤 재시작)
+        properties.getHistory().getJournal().setEnabled(true);
+        properties.getHistory().getJournal().setDirectory(directory.toString());
+        PointService service = new PointService(new UserPointTable(), new PointHistoryTable(), properties, new SimpleMeterRegistry());
+        service.charge(1L, 10000);
+        service.use(1L, 3000);
+        PointSummary summary = service.selectSummaryById(1L);
+        service.close();
+
+        // when
+        PointService restarted = new PointService(new UserPointTable(), new PointHistoryTable(), properties, new SimpleMeterRegistry());
+
+        // then
+        assertThat(restarted.selectSummaryById(1L)).isEqualTo(summary);
+        restarted.close();
+    }
+
+    @Test
+    void 샤드_동시충전() throws InterruptedException {
+        // given (Lock 대신 샤드 2개에서 처리)
+        properties.getShard().setEnabled(true);
+        properties.getShard().setCount(2);
+        PointHistoryTable historyTable = new PointHistoryTable();
+        PointService service = new PointService(new UserPointTable(), historyTable, properties, new SimpleMeterRegistry());
+        long userId = 1L;
+
+        // 25만원씩 9번 충전 -> 최대 보유 포인트(200만) 때문에 1건은 거절되어야 함
+        int threadCount = 9;
+
+        // when
+        int rejected = concurrentCharge(service, userId, threadCount, 250_000);
+
+        // then
+        assertThat(service.selectById(userId).point()).isEqualTo(2_000_000);
+        assertThat(rejected).isEqualTo(1);
+        assertThat(historyTable.selectAllByUserId(userId)).hasSize(threadCount - 1);
+        service.close();
+    }
+
+    @Test
+    void 낙관적_동시충전() throws InterruptedException {
+        // given (Lock 없이 버전 비교로 저장, 재시도 1번만 허용해서 Lock 으로 넘어가는 경우도 생기게)
+        properties.getBalanceStore().setEnabled(true);
+        properties.getHistory().setColumnar(true);
+        properties.getOptimistic().setEnabled(true);
+        properties.getOptimistic().setMaxRetries(1);
+        PointService service = new PointService(userPointTable, pointHistoryTable, properties, new SimpleMeterRegistry());
+        long userId = 1L;
+
+        // 25만원씩 9번 충전 -> 최대 보유 포인트(200만) 때문에 1건은 거절되어야 함
+        int threadCount = 9;
+
+        // when
+        int rejected = concurrentCharge(service, userId, threadCount, 250_000);
+
+        // then
+        assertThat(service.selectById(userId).point()).isEqualTo(2_000_000);
+        assertThat(rejected).isEqualTo(1);
+        assertThat(service.selectHistoryById(userId)).hasSize(threadCount - 1);
+        assertThat(service.selectSummaryById(userId).totalCharged()).isEqualTo(2_000_000);
+        verifyNoInteractions(userPointTable, pointHistoryTable);
+        service.close();
+    }
+
+    @Test
+    void 낙관적_동시저장_내역은_잔고가_바뀐_순서대로() throws InterruptedException {
+        // given (Lock 없이 버전 비교로 저장, 충전한 만큼 바로 사용하는 요청이 동시에)
+        properties.getBalanceStore().setEnabled(true);
+        properties.getHistory().setColumnar(true);
+        properties.getOptimistic().setEnabled(true);
+        properties.getOptimistic().setMaxRetries(1);
+        PointService service = new PointService(userPointTable, pointHistoryTable, properties, new SimpleMeterRegistry());
+        long userId = 1L;
+        int threadCount = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        CountDownLatch latch = new CountDownLatch(threadCount);
+
+        // when
+        for (int i = 0; i < threadCount; i++) {
+            executor.submit(() -> {
+                try {
+                    for (int j = 0; j < 50; j++) {
+                        service.charge(userId, 1000);
+                        try {
+                            service.use(userId, 1000);
+                        } catch (IllegalArgumentException ignored) {
+                            // 다른 요청이 먼저 사용
+                        }
+                    }
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await();
+        executor.shutdown();
+
+        // then (내역을 순서대로 더해도 잔고가 음수가 된 적 없고, 마지막 잔고와 같음)
+        long point = 0;
+        for (PointHistory history : service.selectHistoryById(userId)) {
+            point += history.type() == TransactionType.CHARGE ? history.amount() : -history.amount();
+            assertThat(point).isNotNegative();
+        }
+        assertThat(point).isEqualTo(service.selectById(userId).point());
+        service.close();
+    }
+
+    @Test
+    void 동시조회는_Table_조회_1번() throws Exception {
+        // given (캐시 없이, 첫 Table 조회가 끝나지 않은 동안 같은 유저 조회가 더 들어옴)
+        properties.getCache().setEnabled(false);
+        MeterRegistry registry = new SimpleMeterRegistry();
+        PointService service = new PointService(userPointTable, pointHistoryTable, properties, registry);
+        long userId = 1L;
+        CountDownLatch release = new CountDownLatch(1);
+        when(userPointTable.selectById(userId)).thenAnswer(invocation -> {
+            release.await();
+            return new UserPoint(userId, 1000, System.currentTimeMillis());
+        });
+
+        int threadCount = 5;
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        List<CompletableFuture<UserPoint>> results = new ArrayList<>();
+
+        // when (첫 조회 외 나머지가 모두 붙을 때까지 기다렸다가 Table 응답)
+        for (int i = 0; i < threadCount; i++)
+            results.add(CompletableFuture.supplyAsync(() -> service.selectById(userId), executor));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (registry.get("point.read.coalesced").functionCounter().count() < threadCount - 1 && System.nanoTime() < deadline)
+            Thread.sleep(10);
+        release.countDown();
+
+        // then
+        assertThat(registry.get("point.read.coalesced").functionCounter().count()).isEqualTo(threadCount - 1);
+        for (CompletableFuture<UserPoint> result : results)
+            assertThat(result.get(5, TimeUnit.SECONDS).point()).isEqualTo(1000);
+        verify(userPointTable, times(1)).selectById(userId);
+        executor.shutdown();
+    }
+
+    @Test
+    void 저장_이후_조회는_저장전에_시작된_조회에_합치지않음() throws Exception {
+        // given (저장 전에 시작된 조회가 Table 에서 응답을 기다리는 중)
+        properties.getCache().setEnabled(false);
+        PointService service = new PointService(userPointTable, pointHistoryTable, properties, new SimpleMeterRegistry());
+        long userId = 1L;
+        AtomicLong stored = new AtomicLong(1000);
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(userPointTable.selectById(userId)).thenAnswer(invocation -> {
+            long point = stored.get();
+            if (calls.getAndIncrement() == 0) {
+                started.countDown();
+                release.await();
+            }
+            return new UserPoint(userId, point, System.currentTimeMillis());
+        });
+        when(userPointTable.insertOrUpdate(eq(userId), anyLong())).thenAnswer(invocation -> {
+            stored.set(invocation.getArgument(1));
+            return new UserPoint(userId, stored.get(), System.currentTimeMillis());
+        });
+        CompletableFuture<UserPoint> beforeWrite = CompletableFuture.supplyAsync(() -> service.selectById(userId));
+        started.await();
+
+        // when
+        service.charge(userId, 500);
+        UserPoint afterWrite = CompletableFuture.supplyAsync(() -> service.selectById(userId)).get(5, TimeUnit.SECONDS);
+
+        // then (저장 후 조회는 새로 조회해서 저장된 값을 받음)
+        assertThat(afterWrite.point()).isEqualTo(1500);
+        release.countDown();
+        assertThat(beforeWrite.get(5, TimeUnit.SECONDS).point()).isEqualTo(1000);
+    }
+
+    @Test
+    void 동시저장_내역실패시_잔고복구() {
+        // given (잔고 저장은 성공, 내역 저장은 실패)
+        properties.getParallelWrite().setEnabled(true);
+        PointService service = new PointService(userPointTable, pointHistoryTable, properties, new SimpleMeterRegistry());
+        long userId = 1L;
+        when(userPointTable.selectById(userId)).thenReturn(new UserPoint(userId, 10000, System.currentTimeMillis()));
+        when(userPointTable.insertOrUpdate(eq(userId), anyLong()))
+                .thenAnswer(invocation -> new UserPoint(userId, invocation.getArgument(1), System.currentTimeMillis()));
+        when(pointHistoryTable.insert(eq(userId), eq(5000L), eq(TransactionType.CHARGE), anyLong()))
+                .thenThrow(new IllegalStateException("내역 저장 실패"));
+
+        // when
+        assertThatThrownBy(() -> service.charge(userId, 5000))
+                .isInstanceOf(IllegalStateException.class);
+
+        // then (저장했던 잔고를 이전 값으로 되돌림)
+        verify(userPointTable).insertOrUpdate(userId, 15000);
+        verify(userPointTable).insertOrUpdate(userId, 10000);
+        assertThat(service.selectById(userId).point()).isEqualTo(10000);
+        assertThat(service.selectSummaryById(userId).count()).isZero();
+        service.close();
+    }
+
+    @Test
+    void 동시저장_두저장이_끝나기전엔_이전잔고조회() throws Exception {
+        // given (잔고는 Table 에 기록됐고, 내역 저장은 아직 진행 중)
+        properties.getParallelWrite().setEnabled(true);
+        PointService service = new PointService(userPointTable, pointHistoryTable, properties, new SimpleMeterRegistry());
+        long userId = 1L;
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(userPointTable.selectById(userId)).thenReturn(new UserPoint(userId, 10000, System.currentTimeMillis()));
+        when(userPointTable.insertOrUpdate(eq(userId), anyLong()))
+                .thenAnswer(invocation -> new UserPoint(userId, invocation.getArgument(1), System.currentTimeMillis()));
+        when(pointHistoryTable.insert(eq(userId), eq(5000L), eq(TransactionType.CHARGE), anyLong())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return null;
+        });
+        service.selectById(userId);
+        String version = service.versionOf(userId);
+
+        // when
+        CompletableFuture<UserPoint> charging = CompletableFuture.supplyAsync(() -> service.charge(userId, 5000));
+        started.await();
+        verify(userPointTable, timeout(1000)).insertOrUpdate(userId, 15000);
+
+        // then (두 저장이 끝난 뒤에 새 잔고가 보임)
+        assertThat(service.selectById(userId).point()).isEqualTo(10000);
+        assertThat(service.versionOf(userId)).isEqualTo(version);
+        release.countDown();
+        assertThat(charging.get(5, TimeUnit.SECONDS).point()).isEqualTo(15000);
+        assertThat(service.selectById(userId).point()).isEqualTo(15000);
+        service.close();
+    }
+
+    @Test
+    void 동시저장_잔고실패시_내역제외() {
+        // given (내역은 Table 에 들어가고, 잔고 저장은 실패)
+        properties.getParallelWrite().setEnabled(true);
+        PointService service = new PointService(userPointTable, new PointHistoryTable(), properties, new SimpleMeterRegistry());
+        long userId = 1L;
+        when(userPointTable.selectById(userId)).thenReturn(new UserPoint(userId, 10000, System.currentTimeMillis()));
+        when(userPointTable.insertOrUpdate(userId, 15000)).thenThrow(new IllegalStateException("잔고 저장 실패"));
+
+        // when
+        assertThatThrownBy(() -> service.charge(userId, 5000))
+                .isInstanceOf(IllegalStateException.class);
+
+        // then (Table 에 남은 내역은 조회되지 않음)
+        assertThat(service.selectHistoryById(userId)).isEmpty();
+        assertThat(service.selectSummaryById(userId).count()).isZero();
+        service.close();
+    }
+
+    // threadCount 개 스레드가 동시에 amount 씩 충전하고, 거절(IllegalArgumentException)된 건수를 돌려줌
+    private static int concurrentCharge(PointService service, long userId, int threadCount, long amount) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        CountDownLatch latch = new CountDownLatch(threadCount);
+        AtomicInteger rejected = new AtomicInteger();
+        for (int i = 0; i < threadCount; i++) {
+            executor.submit(() -> {
+                try {
+                    service.charge(userId, amount);
+                } catch (IllegalArgumentException e) {
+                    rejected.incrementAndGet();
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await();
+        executor.shutdown();
+        return rejected.get();
+    }
+
+    // 잔고는 0 에서 시작하고, 저장한 값과 내역(id 1부터)을 그대로 돌려주는 Table
+    private void givenTables(long userId) {
+        AtomicLong historyId = new AtomicLong();
+        when(userPointTable.selectById(userId)).thenReturn(UserPoint.empty(userId));
+        when(userPointTable.insertOrUpdate(eq(userId), anyLong()))
+                .thenAnswer(invocation -> new UserPoint(userId, invocation.getArgument(1), System.currentTimeMillis()));
+        when(pointHistoryTable.insert(eq(userId), anyLong(), any(TransactionType.class), anyLong()))
+                .thenAnswer(invocation -> new PointHistory(historyId.incrementAndGet(), userId,
+                        invocation.getArgument(1), invocation.getArgument(2), invocation.getArgument(3)));
+    }
 }
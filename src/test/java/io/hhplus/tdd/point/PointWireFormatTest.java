@@ -0,0 +1,91 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.ErrorResponse;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class PointWireFormatTest {
+
+    @Test
+    void 내역_인코딩_디코딩() throws IOException {
+        // given (id/시각이 줄어드는 행, 음수 금액도 포함)
+        long userId = 7L;
+        List<PointHistory> histories = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < 10_000; i++)
+            histories.add(new PointHistory(i + 1, userId, i % 2 == 0 ? 1000 : 300, i % 2 == 0 ? TransactionType.CHARGE : TransactionType.USE, now + i));
+        histories.add(new PointHistory(3L, userId, -5, TransactionType.USE, now - 1));
+
+        // when
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PointWireFormat.HistoryWriter writer = new PointWireFormat.HistoryWriter(out, userId);
+        histories.forEach(writer::write);
+        writer.finish();
+
+        // then (행당 수 바이트)
+        assertThat(PointWireFormat.readHistories(out.toByteArray())).isEqualTo(histories);
+        assertThat(out.size()).isLessThan(histories.size() * 6);
+    }
+
+    @Test
+    void 일괄처리결과_인코딩_디코딩() throws IOException {
+        // given
+        List<PointOperationResult> results = List.of(
+                PointOperationResult.success(new PointOperation(1L, TransactionType.CHARGE, 5000), new UserPoint(1L, 15000, 1_700_000_000_000L)),
+                PointOperationResult.failure(new PointOperation(2L, TransactionType.USE, 3000), new ErrorResponse("400", "포인트가 부족합니다.")),
+                PointOperationResult.failure(new PointOperation(3L, null, 0), new ErrorResponse("400", "충전/사용 구분이 없습니다."))
+        );
+
+        // when
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PointWireFormat.writeResults(results, out);
+
+        // then
+        assertThat(PointWireFormat.readResults(out.toByteArray())).isEqualTo(results);
+    }
+
+    @Test
+    void 버전이_다르면_예외() {
+        // when
+        // then
+        assertThatThrownBy(() -> PointWireFormat.readHistories(new byte[]{9, 0}))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void 끝표시없이_끊긴_내역은_예외() throws IOException {
+        // given
+        long userId = 7L;
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PointWireFormat.HistoryWriter writer = new PointWireFormat.HistoryWriter(out, userId);
+        writer.write(new PointHistory(1L, userId, 1000, TransactionType.CHARGE, 1_700_000_000_000L));
+        writer.write(new PointHistory(2L, userId, 300, TransactionType.USE, 1_700_000_000_001L));
+        writer.finish();
+        byte[] bytes = out.toByteArray();
+
+        // when
+        // then (짧은 내역으로 읽히지 않음)
+        assertThatThrownBy(() -> PointWireFormat.readHistories(Arrays.copyOf(bytes, bytes.length - 1)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("데이터가 중간에 끊겼습니다.");
+    }
+
+    @Test
+    void 잘못된_건수나_거래종류는_예외() {
+        // when
+        // then (버전 2, 건수 zigzag(1_000_000), / 버전 2, 건수 1, userId 1, 거래종류 9)
+        assertThatThrownBy(() -> PointWireFormat.readResults(new byte[]{2, (byte) 0x80, (byte) 0x89, 0x7A}))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageStartingWith("잘못된 건수입니다.");
+        assertThatThrownBy(() -> PointWireFormat.readResults(new byte[]{2, 2, 2, 9, 0, 0, 0}))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageStartingWith("알 수 없는 거래 종류입니다.");
+    }
+}
@@ -0,0 +1,94 @@
+package io.hhplus.tdd.point;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+class UserLockManagerTest {
+
+    @Test
+    void 사용이끝난_Lock은_제거() {
+        // given
+        UserLockManager lockManager = new UserLockManager(1000, false);
+
+        // when
+        for (long userId = 1; userId <= 100; userId++)
+            lockManager.execute(userId, () -> { });
+
+        // then
+        assertThat(lockManager.liveLockCount()).isZero();
+    }
+
+    @Test
+    void Lock_대기시간초과() throws InterruptedException {
+        // given
+        UserLockManager lockManager = new UserLockManager(100, false);
+        long userId = 1L;
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        // 다른 스레드가 Lock 을 잡고 놓지 않는 상황
+        executor.submit(() -> lockManager.execute(userId, () -> {
+            locked.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException ignored) {
+            }
+        }));
+        locked.await();
+
+        // when
+        // then
+        assertThatThrownBy(() -> lockManager.execute(userId, () -> { }))
+                .isInstanceOf(LockTimeoutException.class);
+        assertThat(lockManager.timeoutCount()).isEqualTo(1);
+        assertThat(lockManager.liveLockCount()).isEqualTo(1);
+
+        release.countDown();
+        executor.shutdown();
+    }
+
+    @Test
+    void Lock_대기중_중단은_대기시간초과와_구분() throws Exception {
+        // given
+        UserLockManager lockManager = new UserLockManager(10_000, false);
+        long userId = 1L;
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        // 다른 스레드가 Lock 을 잡고 놓지 않는 상황
+        executor.submit(() -> lockManager.execute(userId, () -> {
+            locked.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException ignored) {
+            }
+        }));
+        locked.await();
+        Future<Boolean> waiting = executor.submit(() -> {
+            Thread.currentThread().interrupt();
+            assertThatThrownBy(() -> lockManager.execute(userId, () -> { }))
+                    .isInstanceOf(LockInterruptedException.class);
+            return Thread.currentThread().isInterrupted();
+        });
+
+        // when
+        boolean interrupted = waiting.get(5, TimeUnit.SECONDS);
+
+        // then (중단 상태는 그대로 남기고, 대기 시간 초과로 세지 않음)
+        assertThat(interrupted).isTrue();
+        assertThat(lockManager.timeoutCount()).isZero();
+        assertThat(lockManager.liveLockCount()).isEqualTo(1);
+
+        release.countDown();
+        executor.shutdown();
+    }
+}